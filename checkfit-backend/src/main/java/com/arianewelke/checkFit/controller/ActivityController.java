@@ -2,108 +2,188 @@ package com.arianewelke.checkFit.controller;
 
 import com.arianewelke.checkFit.dto.ActivityRequestDTO;
 import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.ActivitySchedulePageDTO;
 import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleRequestDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleResponseDTO;
+import com.arianewelke.checkFit.dto.StreamTicketDTO;
 import com.arianewelke.checkFit.entity.Activity;
-import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.infra.security.StreamTicketStore;
+import com.arianewelke.checkFit.infra.stream.ActivityOccupancyStream;
 import com.arianewelke.checkFit.service.interfaces.ActivityService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/activity")
 public class ActivityController {
 
     private final ActivityService activityService;
-    private final ActivityRepository activityRepository;
+    private final ActivityOccupancyStream occupancyStream;
+    private final StreamTicketStore streamTicketStore;
+    private final Clock clock;
     private java.time.LocalDateTime LocalDateTime;
 
-    public ActivityController(ActivityService activityService, ActivityRepository activityRepository) {
+    public ActivityController(ActivityService activityService, ActivityOccupancyStream occupancyStream,
+                              StreamTicketStore streamTicketStore, Clock clock) {
         this.activityService = activityService;
-        this.activityRepository = activityRepository;
+        this.occupancyStream = occupancyStream;
+        this.streamTicketStore = streamTicketStore;
+        this.clock = clock;
     }
 
     @PostMapping
     public ResponseEntity<ActivityResponseDTO> create(@RequestBody ActivityRequestDTO dto) {
-        Activity activity = new Activity();
-        activity.setDescription(dto.description());
-        activity.setStartTime(dto.startTime());
-        activity.setFinishTime(dto.finishTime());
-        activity.setLimitPeople(dto.limitPeople());
+        Activity activity = toActivity(dto);
 
-        activityRepository.save(activity);
+        activityService.save(activity);
 
-        return ResponseEntity.ok(
-                new ActivityResponseDTO(
-                        activity.getId(),
-                        activity.getDescription(),
-                        activity.getStartTime(),
-                        activity.getFinishTime(),
-                        activity.getLimitPeople()
-                )
-        );
+        return ResponseEntity.ok(ActivityResponseDTO.from(activity));
     }
 
-    @GetMapping
-    public ResponseEntity<List<ActivityResponseDTO>>findAll() {
-        List<Activity> activity = activityRepository.findAll();
+    // cria de uma vez as aulas de um período a partir de aulas recorrentes (dias da semana + horário)
+    @PostMapping("/recurring")
+    public ResponseEntity<RecurringScheduleResponseDTO> createRecurring(@RequestBody RecurringScheduleRequestDTO schedule) {
+        return ResponseEntity.ok(activityService.createRecurring(schedule));
+    }
 
-        List<ActivityResponseDTO> dtos = activity.stream()
-                .map(a -> new ActivityResponseDTO(
-                        a.getId(),
-                        a.getDescription(),
-                        a.getStartTime(),
-                        a.getFinishTime(),
-                        a.getLimitPeople()
-                ))
-                .toList();
+    // atividades que ainda não terminaram, pela ordem de início
+    @GetMapping
+    public ResponseEntity<List<ActivityResponseDTO>>findAll(WebRequest request) {
+        return conditional(request, activityService.notFinishedETag(), activityService::findAll);
+    }
 
-        return ResponseEntity.ok(dtos);
+    @GetMapping("/open")
+    public ResponseEntity<List<ActivityResponseDTO>> findOpenNow(WebRequest request) {
+        return conditional(request, activityService.openNowETag(), activityService::findOpenNow);
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Activity> findById(@PathVariable Long id) {
-        return activityService.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    // grade por janela de início (from padrão = agora), paginada por cursor (afterStartTime, afterId)
+    @GetMapping("/schedule")
+    public ResponseEntity<ActivitySchedulePageDTO> findSchedule(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStartTime,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        var version = activityService.findScheduleVersion(from, to, afterStartTime, afterId);
+        return conditional(request, version.etag(), () -> activityService.findSchedule(from, to, afterStartTime, afterId, size));
     }
 
-    @GetMapping("/{id}/availability")
-    public ResponseEntity<AvailabilityResponseDTO> getAvailability(@PathVariable Long id) {
-        var activityOptional = activityRepository.findById(id);
+    @GetMapping("/today")
+    public ResponseEntity<ActivitySchedulePageDTO> findToday(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStartTime,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        var today = LocalDate.now(clock).atStartOfDay();
+        var version = activityService.findScheduleVersion(today, today.plusDays(1), afterStartTime, afterId);
+        return conditional(request, version.etag(),
+                () -> activityService.findSchedule(today, today.plusDays(1), afterStartTime, afterId, size));
+    }
 
-        if (activityOptional.isEmpty()) {
+    @GetMapping("/{id}")
+    public ResponseEntity<ActivityResponseDTO> findById(@PathVariable Long id, WebRequest request) {
+        var activity = activityService.findById(id);
+        if (activity.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        return conditional(request, "\"" + activity.get().version() + "\"", activity::get);
+    }
 
-        var activity = activityOptional.get();
-        long checkinCount = activity.getCheckins().size();
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailabilityResponseDTO>> findAvailability(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest request) {
+        var version = activityService.findAvailabilityVersion(ids, from, to);
+        return conditional(request, version.etag(), () -> activityService.findAvailability(ids, from, to));
+    }
 
-        long availableSlots = activity.getLimitPeople() - checkinCount;
+    // eventos "occupancy" com a disponibilidade das atividades que mudaram desde o último envio
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return occupancyStream.subscribe();
+    }
 
-        var response = new AvailabilityResponseDTO(
-                activity.getId(),
-                activity.getDescription(),
-                activity.getLimitPeople(),
-                checkinCount,
-                Math.max(availableSlots, 0)
-        );
+    // o EventSource não manda o Authorization: o cliente troca o JWT por um ticket curto antes de conectar
+    @PostMapping("/stream/ticket")
+    public ResponseEntity<StreamTicketDTO> streamTicket(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(new StreamTicketDTO(streamTicketStore.issue(user)));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<AvailabilityResponseDTO> getAvailability(@PathVariable Long id) {
+        return activityService.findAvailability(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
 
+    // If-Match com a versão lida (ETag de GET /activity/{id}); versão antiga responde 409
     @PutMapping("/{id}")
-    public ResponseEntity<Activity> update(@PathVariable Long id, @RequestBody Activity activity) {
-        return ResponseEntity.ok(activityService.update(id, activity));
+    public ResponseEntity<ActivityResponseDTO> update(@PathVariable Long id, @RequestBody ActivityRequestDTO dto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Activity activity = toActivity(dto);
+        if (ifMatch != null && !ifMatch.isBlank() && !ifMatch.trim().equals("*")) {
+            activity.setVersion(parseVersion(ifMatch));
+        }
+        var updated = activityService.update(id, activity);
+        return ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(ActivityResponseDTO.from(updated));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Activity> delete(@PathVariable Long id) {
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
         activityService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Responde 304 quando o If-None-Match bate, sem montar nem serializar o corpo. checkNotModified já
+    // escreve o ETag na resposta; no-cache faz o navegador revalidar sempre. Sem Last-Modified: as
+    // versões não são datas, e uma data não enxerga deletes nem duas mudanças no mesmo segundo.
+    private <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(body.get());
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        var value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.valueOf(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BusinessExceptions("If-Match must be the activity version");
+        }
+    }
+
+    private Activity toActivity(ActivityRequestDTO dto) {
+        Activity activity = new Activity();
+        activity.setDescription(dto.description());
+        activity.setStartTime(dto.startTime());
+        activity.setFinishTime(dto.finishTime());
+        activity.setLimitPeople(dto.limitPeople());
+        return activity;
+    }
 }
@@ -0,0 +1,55 @@
+package com.arianewelke.checkFit.controller;
+
+import com.arianewelke.checkFit.dto.AttendanceDTO;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.service.interfaces.AttendanceService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// frequência já agregada, sem varrer os check-ins
+@RestController
+@RequestMapping("/analytics/attendance")
+public class AttendanceController {
+
+    private final AttendanceService attendanceService;
+
+    public AttendanceController(AttendanceService attendanceService) {
+        this.attendanceService = attendanceService;
+    }
+
+    @GetMapping("/activity/{id}")
+    public ResponseEntity<AttendanceDTO> byActivity(@PathVariable Long id) {
+        return ResponseEntity.ok(attendanceService.byActivity(id));
+    }
+
+    // só a frequência de quem está logado
+    @GetMapping("/member")
+    public ResponseEntity<AttendanceDTO> byMember(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(attendanceService.byMember(user.id()));
+    }
+
+    @GetMapping("/weekday")
+    public ResponseEntity<List<AttendanceDTO>> byWeekday() {
+        return ResponseEntity.ok(attendanceService.byWeekday());
+    }
+
+    // /analytics/attendance/month?from=2025-01&to=2025-12
+    @GetMapping("/month")
+    public ResponseEntity<List<AttendanceDTO>> byMonth(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return ResponseEntity.ok(attendanceService.byMonth(from, to));
+    }
+
+    // agenda o recálculo a partir dos check-ins e responde na hora; o job agendado faz o mesmo todo dia.
+    // Pedidos enquanto um recálculo está pendente não disparam outro.
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        attendanceService.rebuildInBackground();
+        return ResponseEntity.accepted().build();
+    }
+}
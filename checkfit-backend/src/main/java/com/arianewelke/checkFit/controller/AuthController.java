@@ -5,89 +5,115 @@ import com.arianewelke.checkFit.dto.RegisterRequestDTO;
 import com.arianewelke.checkFit.dto.ResponseDTO;
 import com.arianewelke.checkFit.entity.User;
 import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.security.PasswordHashingService;
 import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.infra.uniqueness.UserUniquenessIndex;
+import com.arianewelke.checkFit.infra.validation.RegisterRequestValidator;
 import com.arianewelke.checkFit.repository.UserRepository;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/auth")
 
 public class AuthController {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final TokenService tokenService;
+    private final UserUniquenessIndex uniquenessIndex;
+    private final Clock clock;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, TokenService tokenService) {
+    public AuthController(UserRepository userRepository, PasswordHashingService passwordHashingService, TokenService tokenService,
+                          UserUniquenessIndex uniquenessIndex, Clock clock) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.tokenService = tokenService;
+        this.uniquenessIndex = uniquenessIndex;
+        this.clock = clock;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequestDTO body) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequestDTO body) {
         var user = userRepository.findByEmail(body.email())
                 .orElseThrow(() -> new BusinessExceptions("User not found"));
 
-        if (!passwordEncoder.matches(body.password(), user.getPassword())) {
-            throw new BusinessExceptions("Invalid password");
-        }
-
-        String token = tokenService.generateToken(user);
-        return ResponseEntity.ok(token);
+        // o BCrypt roda no pool de hashing e o resto no executor de tarefas; a thread do Tomcat é liberada
+        // até a resposta ficar pronta
+        return passwordHashingService.matches(body.password(), user.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                throw new BusinessExceptions("Invalid password");
+            }
+            passwordHashingService.rehashIfNeeded(user, body.password());
+
+            String token = tokenService.generateToken(user);
+            return ResponseEntity.ok(token);
+        });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody @Valid RegisterRequestDTO body) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody @Valid RegisterRequestDTO body) {
 
-        if (userRepository.existsByEmail(body.email())) {
+        // o índice só deixa chegar ao banco o que talvez já esteja cadastrado
+        if (uniquenessIndex.mightContainEmail(body.email()) && userRepository.existsByEmail(body.email())) {
             throw new BusinessExceptions("Email already registered");
         }
 
-        if (userRepository.existsByCpf(body.cpf())) {
+        if (uniquenessIndex.mightContainCpf(body.cpf()) && userRepository.existsByCpf(body.cpf())) {
             throw new BusinessExceptions("CPF already registered");
         }
 
-        if(userRepository.existsByPhone(body.phone())) {
+        if (uniquenessIndex.mightContainPhone(body.phone()) && userRepository.existsByPhone(body.phone())) {
             throw new BusinessExceptions("Phone already registered");
         }
 
-        if (!body.phone().matches("^\\d{10,11}$")) {
-            throw new BusinessExceptions("Phone number must contain 10 or 11 digits");
-        }
-        if (!body.cpf().matches("^\\d{11}$")) {
-            throw new BusinessExceptions("CPF must contain exactly 11 digits");
-        }
-        if (!body.password().matches("^(?=.*[A-Za-z])(?=.*\\d)[A-Za-z\\d]{8,}$")) {
-            throw new BusinessExceptions("Password must have at least 8 characters, including letters and numbers");
-        }
-        if (!body.email().matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
-            throw new BusinessExceptions("Invalid email format");
-        }
+        RegisterRequestValidator.validate(body);
 
-        var newUser = new User();
-        newUser.setName(body.name());
-        newUser.setEmail(body.email());
-        newUser.setPhone(body.phone());
-        newUser.setCpf(body.cpf());
-        newUser.setDateBirth(body.dateBirth());
-        newUser.setCreatedAt(LocalDateTime.now());
-        newUser.setPassword(passwordEncoder.encode(body.password()));
+        return passwordHashingService.encode(body.password()).thenApply(password -> {
+            var newUser = new User();
+            newUser.setName(body.name());
+            newUser.setEmail(body.email());
+            newUser.setPhone(body.phone());
+            newUser.setCpf(body.cpf());
+            newUser.setDateBirth(body.dateBirth());
+            newUser.setCreatedAt(LocalDateTime.now(clock));
+            newUser.setPassword(password);
 
-        this.userRepository.save(newUser);
+            saveAndTranslate(newUser);
+            uniquenessIndex.add(newUser);
 
-        // Gerar token JWT após registro bem-sucedido para permitir auto-login
-        String token = tokenService.generateToken(newUser);
-        return ResponseEntity.status(HttpStatus.CREATED).body(token);
+            // Gerar token JWT após registro bem-sucedido para permitir auto-login
+            String token = tokenService.generateToken(newUser);
+            return ResponseEntity.status(HttpStatus.CREATED).body(token);
+        });
 
     }
-}
 
+    // dois cadastros simultâneos com o mesmo dado passam pelo índice; a constraint decide
+    private User saveAndTranslate(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            var cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase();
+            if (cause.contains(User.UNIQUE_EMAIL)) {
+                throw new BusinessExceptions("Email already registered");
+            }
+            if (cause.contains(User.UNIQUE_CPF)) {
+                throw new BusinessExceptions("CPF already registered");
+            }
+            if (cause.contains(User.UNIQUE_PHONE)) {
+                throw new BusinessExceptions("Phone already registered");
+            }
+            throw e;
+        }
+    }
+}
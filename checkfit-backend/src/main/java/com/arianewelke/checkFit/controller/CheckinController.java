@@ -1,16 +1,27 @@
 package com.arianewelke.checkFit.controller;
 
+import com.arianewelke.checkFit.dto.CheckinDetailsDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryPageDTO;
 import com.arianewelke.checkFit.dto.CheckinRequestDTO;
-import com.arianewelke.checkFit.dto.CheckinResponseDTO;
+import com.arianewelke.checkFit.dto.CheckinUpdateDTO;
 import com.arianewelke.checkFit.dto.CheckinWithHistoryDTO;
-import com.arianewelke.checkFit.entity.Checkin;
-import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.dto.WaitlistPositionDTO;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.idempotency.IdempotencyStore;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
 import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.service.interfaces.CheckinExportService;
 import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import com.arianewelke.checkFit.service.interfaces.WaitlistService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,48 +30,104 @@ public class CheckinController {
 
     private final CheckinService checkinService;
     private final CheckinRepository checkinRepository;
+    private final CheckinExportService checkinExportService;
+    private final WaitlistService waitlistService;
+    private final IdempotencyStore idempotencyStore;
 
-    public CheckinController(CheckinService checkinService, CheckinRepository checkinRepository) {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    public CheckinController(CheckinService checkinService, CheckinRepository checkinRepository,
+                             CheckinExportService checkinExportService, WaitlistService waitlistService,
+                             IdempotencyStore idempotencyStore) {
         this.checkinService = checkinService;
         this.checkinRepository = checkinRepository;
+        this.checkinExportService = checkinExportService;
+        this.waitlistService = waitlistService;
+        this.idempotencyStore = idempotencyStore;
     }
 
+    // com Idempotency-Key, repetições da mesma requisição (por usuário) devolvem a primeira resposta
     @PostMapping
-    public ResponseEntity<CheckinWithHistoryDTO> save(@RequestBody CheckinRequestDTO dto) {
-        return ResponseEntity.ok().body(checkinService.save(dto));
+    public ResponseEntity<CheckinWithHistoryDTO> save(@RequestBody CheckinRequestDTO dto,
+                                                      @RequestParam(defaultValue = "true") boolean history,
+                                                      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                      @AuthenticationPrincipal AuthenticatedUser user) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || user == null) {
+            return ResponseEntity.ok().body(checkinService.save(dto, history));
+        }
+        return ResponseEntity.ok().body(idempotencyStore.execute("checkin:" + user.id() + ":" + idempotencyKey,
+                List.of(String.valueOf(dto.idActivity()), history), () -> checkinService.save(dto, history)));
     }
 
     @GetMapping
-    public ResponseEntity<List<Checkin>>findAll() {
+    public ResponseEntity<List<CheckinDetailsDTO>>findAll() {
         return ResponseEntity.ok(checkinService.findAll());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Checkin> findById(@PathVariable Long id) {
+    public ResponseEntity<CheckinDetailsDTO> findById(@PathVariable Long id) {
         return checkinService.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    //checkin/history para o usuario verificar o historico de checkins
+    //checkin/history para o usuario verificar o historico de checkins, paginado por cursor
     @GetMapping("/history")
-    public ResponseEntity<?> getCheckinHistory(@AuthenticationPrincipal User user) {
-        var history = checkinRepository.findByUser(user)
-                .stream()
-                .map(CheckinResponseDTO::new)
-                .toList();
-        return ResponseEntity.ok(history);
+    public ResponseEntity<CheckinHistoryPageDTO> getCheckinHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCheckinTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(checkinService.findHistory(beforeCheckinTime, beforeId, size));
+    }
+
+    // exportação em streaming: ndjson ou csv, filtrando por período do check-in e atividade
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                       @RequestParam(required = false) Long activityId,
+                       HttpServletResponse response) throws IOException {
+        var exportFormat = parseFormat(format);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"checkins." + exportFormat.extension() + "\"");
+        checkinExportService.export(exportFormat, from, to, activityId, response.getOutputStream());
+    }
+
+    // fila de espera: quem entra numa atividade lotada recebe a vaga do próximo cancelamento
+    @PostMapping("/waitlist")
+    public ResponseEntity<WaitlistPositionDTO> joinWaitlist(@RequestBody CheckinRequestDTO dto) {
+        return ResponseEntity.ok(waitlistService.join(dto.idActivity()));
+    }
+
+    @GetMapping("/waitlist/{activityId}")
+    public ResponseEntity<WaitlistPositionDTO> getWaitlistPosition(@PathVariable Long activityId) {
+        return ResponseEntity.ok(waitlistService.position(activityId));
+    }
+
+    @DeleteMapping("/waitlist/{activityId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable Long activityId) {
+        waitlistService.leave(activityId);
+        return ResponseEntity.noContent().build();
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Checkin> update(@PathVariable Long id, @RequestBody Checkin checkin) {
-        return ResponseEntity.ok(checkinService.update(id, checkin));
+    public ResponseEntity<CheckinDetailsDTO> update(@PathVariable Long id, @RequestBody CheckinUpdateDTO dto) {
+        return ResponseEntity.ok(checkinService.update(id, dto));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Checkin> delete(@PathVariable Long id) {
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
         checkinService.delete(id);
         return ResponseEntity.noContent().build();
     }
 
+    private CheckinExportService.Format parseFormat(String format) {
+        try {
+            return CheckinExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessExceptions("Unsupported export format: " + format);
+        }
+    }
+
 }
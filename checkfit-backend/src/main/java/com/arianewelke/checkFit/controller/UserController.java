@@ -1,11 +1,13 @@
 package com.arianewelke.checkFit.controller;
 
+import com.arianewelke.checkFit.dto.UserResponseDTO;
 import com.arianewelke.checkFit.entity.User;
 import com.arianewelke.checkFit.service.interfaces.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/user")
@@ -18,25 +20,26 @@ public class UserController {
     }
 
     @PostMapping
-    public ResponseEntity<User> save(@RequestBody User user) {
-        return ResponseEntity.ok(userService.save(user)) ;
+    public ResponseEntity<UserResponseDTO> save(@RequestBody User user) {
+        return ResponseEntity.ok(UserResponseDTO.from(userService.save(user)));
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> findAll() {
-        return ResponseEntity.ok(userService.findAll()) ;
+    public ResponseEntity<List<UserResponseDTO>> findAll() {
+        return ResponseEntity.ok(userService.findAll().stream().map(UserResponseDTO::from).toList());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> findById(@PathVariable Long id) {
+    public ResponseEntity<UserResponseDTO> findById(@PathVariable Long id) {
         return userService.findById(id)
+                .map(UserResponseDTO::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity <User> update(@PathVariable Long id, @RequestBody User user) {
-        return ResponseEntity.ok(userService.update(id, user)) ;
+    public CompletableFuture<ResponseEntity<UserResponseDTO>> update(@PathVariable Long id, @RequestBody User user) {
+        return userService.update(id, user).thenApply(updated -> ResponseEntity.ok(UserResponseDTO.from(updated)));
     }
 
     @DeleteMapping("/{id}")
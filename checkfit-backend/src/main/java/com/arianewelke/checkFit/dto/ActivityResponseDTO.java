@@ -1,7 +1,20 @@
 package com.arianewelke.checkFit.dto;
 
+import com.arianewelke.checkFit.entity.Activity;
+
 import java.time.LocalDateTime;
 
-public record ActivityResponseDTO(Long id, String description, LocalDateTime startTime, LocalDateTime finishTime, int limitPeople) {
+public record ActivityResponseDTO(Long id, String description, LocalDateTime startTime, LocalDateTime finishTime, int limitPeople,
+                                  Long version) {
 
+    public static ActivityResponseDTO from(Activity activity) {
+        return new ActivityResponseDTO(
+                activity.getId(),
+                activity.getDescription(),
+                activity.getStartTime(),
+                activity.getFinishTime(),
+                activity.getLimitPeople(),
+                activity.getVersion()
+        );
+    }
 }
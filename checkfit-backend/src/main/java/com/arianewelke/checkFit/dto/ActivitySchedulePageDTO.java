@@ -0,0 +1,8 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// nextStartTime/nextId são o cursor da próxima página; ficam nulos na última página
+public record ActivitySchedulePageDTO(List<ActivityResponseDTO> items, LocalDateTime nextStartTime, Long nextId) {
+}
@@ -0,0 +1,16 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public record ActivityVersionDTO(Long activities, LocalDateTime lastModified, Long occupiedSlots, Long versions, Long ids) {
+
+    // Só ETag, sem Last-Modified: um delete ou duas alterações no mesmo segundo não mudam a data,
+    // e o If-Modified-Since responderia 304 com a lista antiga.
+    public String etag() {
+        return "\"" + Long.toHexString(activities) + "-" + Long.toHexString(ids) + "-" + Long.toHexString(occupiedSlots)
+                + "-" + Long.toHexString(versions)
+                + "-" + (lastModified == null ? "0" : Long.toHexString(lastModified.toEpochSecond(ZoneOffset.UTC))
+                + "." + Integer.toHexString(lastModified.getNano())) + "\"";
+    }
+}
@@ -0,0 +1,4 @@
+package com.arianewelke.checkFit.dto;
+
+public record AttendanceDTO(String bucket, long checkins) {
+}
@@ -0,0 +1,7 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+
+// check-ins de um membro numa atividade, lidos pelo rebuild dos contadores de frequência
+public record AttendanceRowDTO(Long userId, Long activityId, LocalDateTime startTime, long checkins) {
+}
@@ -1,4 +1,7 @@
 package com.arianewelke.checkFit.dto;
 
 public record AvailabilityResponseDTO(Long activityId, String activityDescription, int totalSlots, long occupiedSlots, long availableSlots) {
+    public AvailabilityResponseDTO(Long activityId, String activityDescription, int totalSlots, int occupiedSlots) {
+        this(activityId, activityDescription, totalSlots, occupiedSlots, Math.max(totalSlots - occupiedSlots, 0));
+    }
 }
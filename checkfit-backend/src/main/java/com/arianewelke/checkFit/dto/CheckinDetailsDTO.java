@@ -0,0 +1,6 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+
+public record CheckinDetailsDTO(Long id, Long userId, String userName, Long activityId, String activityDescription, LocalDateTime checkinTime) {
+}
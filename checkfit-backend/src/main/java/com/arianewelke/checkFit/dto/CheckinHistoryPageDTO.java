@@ -0,0 +1,8 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// nextCheckinTime/nextId são o cursor da próxima página; ficam nulos na última página
+public record CheckinHistoryPageDTO(List<CheckinResponseDTO> items, LocalDateTime nextCheckinTime, Long nextId) {
+}
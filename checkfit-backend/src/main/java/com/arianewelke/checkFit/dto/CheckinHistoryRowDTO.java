@@ -0,0 +1,10 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+
+// linha do histórico com o id, que é parte do cursor de paginação
+public record CheckinHistoryRowDTO(Long id, String name, String description, LocalDateTime checkinTime) {
+    public CheckinResponseDTO toResponse() {
+        return new CheckinResponseDTO(name, description, checkinTime);
+    }
+}
@@ -0,0 +1,6 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+
+public record CheckinUpdateDTO(LocalDateTime checkinTime) {
+}
@@ -0,0 +1,10 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Set;
+
+// uma aula que se repete nos dias da semana indicados, no mesmo horário
+public record RecurringActivityRequestDTO(String description, Set<DayOfWeek> daysOfWeek, LocalTime startTime,
+                                          LocalTime finishTime, int limitPeople) {
+}
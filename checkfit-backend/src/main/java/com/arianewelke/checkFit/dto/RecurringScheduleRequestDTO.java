@@ -0,0 +1,8 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// grade de um período (startDate e endDate inclusive) montada a partir de aulas recorrentes
+public record RecurringScheduleRequestDTO(LocalDate startDate, LocalDate endDate, List<RecurringActivityRequestDTO> activities) {
+}
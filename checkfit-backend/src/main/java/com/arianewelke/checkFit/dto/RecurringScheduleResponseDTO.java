@@ -0,0 +1,6 @@
+package com.arianewelke.checkFit.dto;
+
+import java.time.LocalDateTime;
+
+public record RecurringScheduleResponseDTO(int created, LocalDateTime firstStartTime, LocalDateTime lastStartTime) {
+}
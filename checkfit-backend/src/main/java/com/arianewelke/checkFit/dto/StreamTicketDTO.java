@@ -0,0 +1,5 @@
+package com.arianewelke.checkFit.dto;
+
+// ticket de uso único para abrir GET /activity/stream?ticket=...
+public record StreamTicketDTO(String ticket) {
+}
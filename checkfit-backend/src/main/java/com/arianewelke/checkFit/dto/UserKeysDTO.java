@@ -0,0 +1,4 @@
+package com.arianewelke.checkFit.dto;
+
+public record UserKeysDTO(String email, String cpf, String phone) {
+}
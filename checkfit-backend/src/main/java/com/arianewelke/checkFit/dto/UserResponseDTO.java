@@ -0,0 +1,23 @@
+package com.arianewelke.checkFit.dto;
+
+import com.arianewelke.checkFit.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// dados públicos do usuário; senha e check-ins nunca saem na resposta
+public record UserResponseDTO(Long id, String name, String email, String phone, String cpf, LocalDate dateBirth,
+                              LocalDateTime createdAt) {
+
+    public static UserResponseDTO from(User user) {
+        return new UserResponseDTO(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getPhone(),
+                user.getCpf(),
+                user.getDateBirth(),
+                user.getCreatedAt()
+        );
+    }
+}
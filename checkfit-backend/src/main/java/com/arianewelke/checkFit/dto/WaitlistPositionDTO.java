@@ -0,0 +1,5 @@
+package com.arianewelke.checkFit.dto;
+
+// position 0 quando o usuário não está na fila (nunca entrou, saiu ou já foi promovido)
+public record WaitlistPositionDTO(Long activityId, long position) {
+}
@@ -1,7 +1,6 @@
 package com.arianewelke.checkFit.entity;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,23 +10,42 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name="activity")
+@Table(name="activity", indexes = {
+        @Index(name = "idx_activity_start_time", columnList = "startTime, id")
+})
 @Getter
 @Setter
 public class Activity {
 
+    public static final String ID_SEQUENCE = "activity_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // sequência com blocos de 50 ids: permite inserts em lote (com IDENTITY o Hibernate insere uma linha por vez)
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
-    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
     private LocalDateTime startTime;
-    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
     private LocalDateTime finishTime;
     private String description;
     private int limitPeople;
+    // só o insert e os updates diretos (reserveSlot/releaseSlot/syncOccupiedSlots) escrevem a coluna:
+    // o update da entidade levaria de volta um valor lido antes de um check-in concorrente
+    @Column(updatable = false)
+    private int occupiedSlots;
+
+    // versão para o lock otimista do update (e ETag de GET /activity/{id})
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // última alteração, preenchida pelo serviço com o Clock, incluindo as de vaga feitas por update direto
+    // (reserveSlot/releaseSlot)
+    private LocalDateTime updatedAt;
 
+    // as respostas usam DTOs; a entidade nunca deve levar os check-ins (e seus usuários) para o JSON
     @OneToMany(mappedBy = "activity")
-    @JsonManagedReference
+    @JsonIgnore
     private List<Checkin> checkins;
 
     public Activity() {
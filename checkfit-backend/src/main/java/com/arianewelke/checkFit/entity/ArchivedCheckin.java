@@ -0,0 +1,51 @@
+package com.arianewelke.checkFit.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Check-ins de atividades de dias anteriores, movidos da tabela checkin pelo CheckinArchiver.
+// Mantêm o id original, então id continua único entre as duas tabelas. As constraints de unicidade
+// não precisam existir aqui: elas só importam para atividades que ainda aceitam check-in.
+@Entity
+@Table(name = "checkin_archive", indexes = {
+        @Index(name = "idx_checkin_archive_user_time", columnList = "userId, checkinTime"),
+        @Index(name = "idx_checkin_archive_activity", columnList = "activityId")
+})
+@Getter
+public class ArchivedCheckin {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "userId")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "activityId")
+    private Activity activity;
+
+    private LocalDateTime checkinTime;
+
+    private LocalDate checkinDate;
+
+    public ArchivedCheckin() {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ArchivedCheckin checkin = (ArchivedCheckin) o;
+        return Objects.equals(id, checkin.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
@@ -0,0 +1,9 @@
+package com.arianewelke.checkFit.entity;
+
+// eixos dos contadores de frequência; o bucket de cada um é o id ou o período correspondente
+public enum AttendanceDimension {
+    ACTIVITY,
+    MEMBER,
+    WEEKDAY,
+    MONTH
+}
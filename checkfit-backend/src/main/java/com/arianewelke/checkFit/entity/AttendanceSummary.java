@@ -0,0 +1,45 @@
+package com.arianewelke.checkFit.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.util.Objects;
+
+// Contadores de check-in já agregados (por atividade, membro, dia da semana e mês). São mantidos em
+// memória pelo AttendanceCounters e gravados aqui em lotes; a tabela só é lida na subida da aplicação.
+@Entity
+@Table(name = "attendance_summary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_summary_bucket", columnNames = {"dimension", "bucket"})
+})
+@Getter
+public class AttendanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AttendanceDimension dimension;
+
+    @Column(nullable = false, length = 32)
+    private String bucket;
+
+    private long checkins;
+
+    public AttendanceSummary() {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AttendanceSummary summary = (AttendanceSummary) o;
+        return Objects.equals(id, summary.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
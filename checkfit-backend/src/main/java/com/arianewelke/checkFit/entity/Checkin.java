@@ -1,7 +1,5 @@
 package com.arianewelke.checkFit.entity;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,34 +10,48 @@ import java.util.Objects;
 import java.util.Optional;
 
 @Entity
-@Table(name = "checkin")
+@Table(name = "checkin", uniqueConstraints = {
+        @UniqueConstraint(name = Checkin.UNIQUE_USER_ACTIVITY, columnNames = {"userId", "activityId"}),
+        @UniqueConstraint(name = Checkin.UNIQUE_USER_DAY, columnNames = {"userId", "checkinDate"})
+}, indexes = {
+        @Index(name = "idx_checkin_user_time", columnList = "userId, checkinTime")
+})
 @Getter
 @Setter
 public class Checkin {
 
+    public static final String UNIQUE_USER_ACTIVITY = "uk_checkin_user_activity";
+    public static final String UNIQUE_USER_DAY = "uk_checkin_user_day";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "userId")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "activityId")
-    @JsonManagedReference
     private Activity activity;
 
-    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
     private LocalDateTime checkinTime;
 
+    // dia do check-in, usado pela constraint de um check-in por usuário por dia
+    private LocalDate checkinDate;
+
     public Checkin() {
     }
 
-    public Checkin(User user, Activity activity) {
+    public Checkin(User user, Activity activity, LocalDateTime checkinTime) {
         this.user = user;
         this.activity = activity;
-        this.checkinTime = LocalDateTime.now();
+        setCheckinTime(checkinTime);
+    }
+
+    public void setCheckinTime(LocalDateTime checkinTime) {
+        this.checkinTime = checkinTime;
+        this.checkinDate = checkinTime == null ? null : checkinTime.toLocalDate();
     }
 
     @Override
@@ -1,5 +1,7 @@
 package com.arianewelke.checkFit.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,11 +14,19 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name="user")
+@Table(name="user", uniqueConstraints = {
+        @UniqueConstraint(name = User.UNIQUE_EMAIL, columnNames = "email"),
+        @UniqueConstraint(name = User.UNIQUE_CPF, columnNames = "cpf"),
+        @UniqueConstraint(name = User.UNIQUE_PHONE, columnNames = "phone")
+})
 @Getter
 @Setter
 public class User implements UserDetails {
 
+    public static final String UNIQUE_EMAIL = "uk_user_email";
+    public static final String UNIQUE_CPF = "uk_user_cpf";
+    public static final String UNIQUE_PHONE = "uk_user_phone";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -25,26 +35,28 @@ public class User implements UserDetails {
     private String phone;
     private String cpf;
     private LocalDate dateBirth;
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "user")
+    @JsonIgnore
     private List<Checkin> checkins;
 
     public User() {
 
     }
 
-    public User(String name, String email, String phone, String cpf, LocalDate dateBirth, String password) {
+    public User(String name, String email, String phone, String cpf, LocalDate dateBirth, String password, LocalDateTime createdAt) {
         this.name = name;
         this.email = email;
         this.phone = phone;
         this.cpf = cpf;
         this.dateBirth = dateBirth;
         this.password = password;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = createdAt;
     }
 
     @Override
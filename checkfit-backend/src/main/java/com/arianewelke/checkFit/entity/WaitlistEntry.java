@@ -0,0 +1,57 @@
+package com.arianewelke.checkFit.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Fila de espera de uma atividade lotada. A ordem é a do id: o primeiro da fila é o menor id
+// da atividade, encontrado pelo índice idx_waitlist_activity sem ordenar a fila inteira.
+@Entity
+@Table(name = "waitlist_entry", uniqueConstraints = {
+        @UniqueConstraint(name = WaitlistEntry.UNIQUE_USER_ACTIVITY, columnNames = {"userId", "activityId"})
+}, indexes = {
+        @Index(name = "idx_waitlist_activity", columnList = "activityId, id")
+})
+@Getter
+public class WaitlistEntry {
+
+    public static final String UNIQUE_USER_ACTIVITY = "uk_waitlist_user_activity";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "userId")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "activityId")
+    private Activity activity;
+
+    private LocalDateTime createdAt;
+
+    public WaitlistEntry() {
+    }
+
+    public WaitlistEntry(User user, Activity activity, LocalDateTime createdAt) {
+        this.user = user;
+        this.activity = activity;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+
+        WaitlistEntry entry = (WaitlistEntry) o;
+        return Objects.equals(id, entry.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
@@ -0,0 +1,213 @@
+package com.arianewelke.checkFit.infra.analytics;
+
+import com.arianewelke.checkFit.entity.AttendanceDimension;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Contadores de frequência por atividade, membro, dia da semana e mês da aula. Cada check-in
+// confirmado (ou cancelado) soma nos contadores em memória depois do commit, sem nenhum statement a
+// mais na transação; as diferenças vão para attendance_summary em lotes a cada flush-ms.
+// As leituras são um get no mapa, independentes do número de check-ins.
+@Component
+public class AttendanceCounters {
+
+    private static final String UPSERT = "insert into attendance_summary (dimension, bucket, checkins) values (?, ?, ?) "
+            + "on duplicate key update checkins = checkins + values(checkins)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+
+    // record() usa o read lock (concorrente entre si); a troca pelos valores do rebuild usa o write lock
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // flush e rebuild não podem escrever na tabela ao mesmo tempo
+    private final Object tableLock = new Object();
+
+    private volatile Map<Key, LongAdder> totals = new ConcurrentHashMap<>();
+    private volatile Map<Key, LongAdder> pending = new ConcurrentHashMap<>();
+    // diferenças que chegaram enquanto o rebuild lia os check-ins; null fora do rebuild
+    private volatile Map<Key, LongAdder> duringRebuild;
+
+    public AttendanceCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${api.analytics.flush-batch-size:500}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public record Key(AttendanceDimension dimension, String bucket) {
+    }
+
+    // chamados dentro da transação do check-in; só contam se ela for commitada
+    public void checkedIn(Long userId, Long activityId, LocalDateTime activityStart) {
+        afterCommit(() -> record(userId, activityId, activityStart, 1));
+    }
+
+    public void cancelled(Long userId, Long activityId, LocalDateTime activityStart) {
+        afterCommit(() -> record(userId, activityId, activityStart, -1));
+    }
+
+    public long count(AttendanceDimension dimension, String bucket) {
+        var counter = totals.get(new Key(dimension, bucket));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public static String weekday(LocalDateTime activityStart) {
+        return activityStart.getDayOfWeek().name();
+    }
+
+    public static String month(LocalDateTime activityStart) {
+        return YearMonth.from(activityStart).toString();
+    }
+
+    void record(Long userId, Long activityId, LocalDateTime activityStart, long delta) {
+        swapLock.readLock().lock();
+        try {
+            add(new Key(AttendanceDimension.ACTIVITY, String.valueOf(activityId)), delta);
+            add(new Key(AttendanceDimension.MEMBER, String.valueOf(userId)), delta);
+            if (activityStart != null) {
+                add(new Key(AttendanceDimension.WEEKDAY, weekday(activityStart)), delta);
+                add(new Key(AttendanceDimension.MONTH, month(activityStart)), delta);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void add(Key key, long delta) {
+        totals.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        pending.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        var rebuilding = duringRebuild;
+        if (rebuilding != null) {
+            rebuilding.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.analytics.flush-ms:10000}")
+    public void flush() {
+        synchronized (tableLock) {
+            Map<Key, LongAdder> batch;
+            swapLock.writeLock().lock();
+            try {
+                batch = pending;
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            var rows = new ArrayList<Object[]>();
+            batch.forEach((key, delta) -> {
+                long value = delta.sum();
+                if (value != 0) {
+                    rows.add(new Object[]{key.dimension().name(), key.bucket(), value});
+                }
+            });
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, rows, flushBatchSize,
+                        (statement, row) -> {
+                            statement.setString(1, (String) row[0]);
+                            statement.setString(2, (String) row[1]);
+                            statement.setLong(3, (Long) row[2]);
+                        }));
+            } catch (RuntimeException e) {
+                // devolve as diferenças para a próxima tentativa
+                swapLock.readLock().lock();
+                try {
+                    batch.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(delta.sum()));
+                } finally {
+                    swapLock.readLock().unlock();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // carrega o que já foi gravado; devolve false se a tabela está vazia
+    boolean load() {
+        var loaded = new ConcurrentHashMap<Key, LongAdder>();
+        jdbcTemplate.query("select dimension, bucket, checkins from attendance_summary", row -> {
+            var counter = new LongAdder();
+            counter.add(row.getLong(3));
+            loaded.put(new Key(AttendanceDimension.valueOf(row.getString(1)), row.getString(2)), counter);
+        });
+        swapLock.writeLock().lock();
+        try {
+            // o que ainda não foi gravado continua valendo
+            pending.forEach((key, delta) -> loaded.computeIfAbsent(key, k -> new LongAdder()).add(delta.sum()));
+            totals = loaded;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        return !loaded.isEmpty();
+    }
+
+    void startRebuild() {
+        duringRebuild = new ConcurrentHashMap<>();
+    }
+
+    // Troca os contadores pelos recalculados, somando o que entrou enquanto o rebuild lia o banco, e
+    // regrava a tabela. Um check-in commitado depois do início da leitura mas antes de o bloco dele ser
+    // lido entra duas vezes; o próximo rebuild corrige.
+    void finishRebuild(Map<Key, Long> rebuilt) {
+        synchronized (tableLock) {
+            var fresh = new ConcurrentHashMap<Key, LongAdder>();
+            rebuilt.forEach((key, value) -> fresh.computeIfAbsent(key, k -> new LongAdder()).add(value));
+            swapLock.writeLock().lock();
+            try {
+                var rebuilding = duringRebuild;
+                if (rebuilding != null) {
+                    rebuilding.forEach((key, delta) -> fresh.computeIfAbsent(key, k -> new LongAdder()).add(delta.sum()));
+                }
+                totals = fresh;
+                pending = new ConcurrentHashMap<>();
+                duringRebuild = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            var rows = new ArrayList<Object[]>();
+            fresh.forEach((key, value) -> rows.add(new Object[]{key.dimension().name(), key.bucket(), value.sum()}));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("delete from attendance_summary");
+                jdbcTemplate.batchUpdate("insert into attendance_summary (dimension, bucket, checkins) values (?, ?, ?)",
+                        rows, flushBatchSize, (statement, row) -> {
+                            statement.setString(1, (String) row[0]);
+                            statement.setString(2, (String) row[1]);
+                            statement.setLong(3, (Long) row[2]);
+                        });
+            });
+        }
+    }
+
+    void abortRebuild() {
+        duringRebuild = null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.arianewelke.checkFit.infra.analytics;
+
+import com.arianewelke.checkFit.dto.AttendanceRowDTO;
+import com.arianewelke.checkFit.entity.AttendanceDimension;
+import com.arianewelke.checkFit.repository.ArchivedCheckinRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+// Recalcula os contadores de frequência a partir dos check-ins (tabela quente e arquivo). Cada tabela
+// é lida em blocos de ids, agrupados no banco, com os blocos distribuídos entre algumas threads.
+// O recálculo da subida, do cron e do endpoint roda numa thread própria: não segura a subida, a
+// requisição nem o pool do @Scheduled, que também faz o flush do SSE e a reconciliação das vagas.
+@Component
+public class AttendanceRebuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRebuilder.class);
+
+    private final CheckinRepository checkinRepository;
+    private final ArchivedCheckinRepository archivedCheckinRepository;
+    private final AttendanceCounters counters;
+    private final int chunkSize;
+    private final int threads;
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "attendance-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // um recálculo em segundo plano por vez; pedidos durante ele não enfileiram outro
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // recálculos iniciados; só alterado dentro do rebuild, que é synchronized
+    private volatile long started;
+
+    public AttendanceRebuilder(CheckinRepository checkinRepository, ArchivedCheckinRepository archivedCheckinRepository,
+                               AttendanceCounters counters,
+                               @Value("${api.analytics.rebuild.chunk-size:50000}") int chunkSize,
+                               @Value("${api.analytics.rebuild.threads:2}") int threads) {
+        this.checkinRepository = checkinRepository;
+        this.archivedCheckinRepository = archivedCheckinRepository;
+        this.counters = counters;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    // na subida usa o que já está gravado; só recalcula quando a tabela ainda não existe ou está vazia
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!counters.load()) {
+            rebuildInBackground();
+        }
+    }
+
+    @Scheduled(cron = "${api.analytics.rebuild.cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuildInBackground();
+    }
+
+    // false quando já há um recálculo pendente ou rodando
+    public boolean rebuildInBackground() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return false;
+        }
+        long requestedAfter = started;
+        background.execute(() -> {
+            try {
+                rebuildUnlessStartedSince(requestedAfter);
+            } catch (RuntimeException e) {
+                log.error("Attendance rebuild failed", e);
+            } finally {
+                scheduled.set(false);
+            }
+        });
+        return true;
+    }
+
+    // um recálculo que começou depois do pedido (o síncrono, por exemplo) já atende a ele
+    private synchronized void rebuildUnlessStartedSince(long requestedAfter) {
+        if (started == requestedAfter) {
+            rebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdownNow();
+    }
+
+    public synchronized void rebuild() {
+        started++;
+        long startedAt = System.nanoTime();
+        counters.startRebuild();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+        try {
+            var chunks = new ArrayList<CompletableFuture<Map<AttendanceCounters.Key, Long>>>();
+            submit(chunks, executor, checkinRepository::findMinId, checkinRepository::findMaxId, checkinRepository::countAttendanceBetween);
+            submit(chunks, executor, archivedCheckinRepository::findMinId, archivedCheckinRepository::findMaxId,
+                    archivedCheckinRepository::countAttendanceBetween);
+
+            var rebuilt = new HashMap<AttendanceCounters.Key, Long>();
+            for (var chunk : chunks) {
+                chunk.join().forEach((key, value) -> rebuilt.merge(key, value, Long::sum));
+            }
+            counters.finishRebuild(rebuilt);
+            log.info("Attendance counters rebuilt from {} chunks in {} ms", chunks.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (RuntimeException e) {
+            counters.abortRebuild();
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void submit(List<CompletableFuture<Map<AttendanceCounters.Key, Long>>> chunks, ExecutorService executor,
+                        Supplier<Optional<Long>> minId, Supplier<Optional<Long>> maxId,
+                        BiFunction<Long, Long, List<AttendanceRowDTO>> query) {
+        var min = minId.get();
+        var max = maxId.get();
+        if (min.isEmpty() || max.isEmpty()) {
+            return;
+        }
+        for (long from = min.get(); from <= max.get(); from += chunkSize) {
+            long fromId = from;
+            long toId = Math.min(from + chunkSize - 1, max.get());
+            chunks.add(CompletableFuture.supplyAsync(() -> aggregate(query.apply(fromId, toId)), executor));
+        }
+    }
+
+    private static Map<AttendanceCounters.Key, Long> aggregate(List<AttendanceRowDTO> rows) {
+        var counts = new HashMap<AttendanceCounters.Key, Long>();
+        for (AttendanceRowDTO row : rows) {
+            counts.merge(new AttendanceCounters.Key(AttendanceDimension.ACTIVITY, String.valueOf(row.activityId())), row.checkins(), Long::sum);
+            counts.merge(new AttendanceCounters.Key(AttendanceDimension.MEMBER, String.valueOf(row.userId())), row.checkins(), Long::sum);
+            counts.merge(new AttendanceCounters.Key(AttendanceDimension.WEEKDAY, AttendanceCounters.weekday(row.startTime())), row.checkins(), Long::sum);
+            counts.merge(new AttendanceCounters.Key(AttendanceDimension.MONTH, AttendanceCounters.month(row.startTime())), row.checkins(), Long::sum);
+        }
+        return counts;
+    }
+}
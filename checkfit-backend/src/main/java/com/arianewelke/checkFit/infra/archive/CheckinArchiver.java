@@ -0,0 +1,76 @@
+package com.arianewelke.checkFit.infra.archive;
+
+import com.arianewelke.checkFit.repository.ArchivedCheckinRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+// Move para checkin_archive os check-ins de atividades que terminaram antes de hoje, em lotes
+// pequenos (uma transação por lote), para a tabela checkin ficar só com o que ainda pode mudar.
+// O corte no início do dia mantém na tabela quente todos os check-ins de hoje, que a
+// constraint de um check-in por dia (uk_checkin_user_day) precisa enxergar.
+//
+// Tabela à parte e não partições do MySQL, mesmo com o schema nas migrações do Flyway: tabelas
+// particionadas não aceitam foreign keys (checkin referencia user e activity), e toda chave única
+// teria de incluir a coluna de partição, o que desfaria uk_checkin_user_activity.
+@Component
+public class CheckinArchiver {
+
+    private final CheckinRepository checkinRepository;
+    private final ArchivedCheckinRepository archivedCheckinRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter archived;
+
+    public CheckinArchiver(CheckinRepository checkinRepository, ArchivedCheckinRepository archivedCheckinRepository,
+                           PlatformTransactionManager transactionManager, Clock clock, MeterRegistry meterRegistry,
+                           @Value("${api.checkin.archive.batch-size:1000}") int batchSize,
+                           @Value("${api.checkin.archive.max-batches:100}") int maxBatches) {
+        this.checkinRepository = checkinRepository;
+        this.archivedCheckinRepository = archivedCheckinRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.archived = Counter.builder("checkfit.checkin.archived")
+                .description("Check-ins moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    // um número limitado de lotes por execução; o que sobrar fica para a próxima
+    @Scheduled(fixedDelayString = "${api.checkin.archive.interval-ms:3600000}", initialDelayString = "${api.checkin.archive.initial-delay-ms:60000}")
+    public int archive() {
+        var cutoff = LocalDate.now(clock).atStartOfDay();
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                var ids = checkinRepository.findIdsOfActivitiesFinishedBefore(cutoff, Limit.of(batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                archivedCheckinRepository.copyFromCheckin(ids);
+                return checkinRepository.deleteByIdIn(ids);
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived.increment(moved);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,73 @@
+package com.arianewelke.checkFit.infra.cache;
+
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Cache das atividades por id (dados que mudam poucas vezes por dia). Guarda só o DTO imutável:
+// a ocupação muda a cada check-in e continua vindo do banco. Toda escrita em Activity chama evict().
+// A listagem da grade vem do ActivityIntervalIndex.
+@Component
+public class ActivityCache {
+
+    private final Cache<Long, ActivityResponseDTO> byId;
+
+    public ActivityCache(MeterRegistry meterRegistry,
+                         @Value("${api.activity.cache.max-size:10000}") long maxSize,
+                         @Value("${api.activity.cache.ttl:10m}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        monitor(meterRegistry, byId, "activity.byId");
+    }
+
+    public Optional<ActivityResponseDTO> findById(Long id, Function<Long, Optional<ActivityResponseDTO>> loader) {
+        // o Caffeine não guarda null, então um id inexistente sempre vai ao banco
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    // Invalida na hora e de novo depois do commit: uma leitura que começou antes do commit
+    // pode recarregar o valor antigo, e a segunda invalidação o remove.
+    public void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    public double hitRate() {
+        return byId.stats().hitRate();
+    }
+
+    private void invalidate(Long id) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+    }
+
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("checkfit.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Hit ratio since startup")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,85 @@
+package com.arianewelke.checkFit.infra.idempotency;
+
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Respostas de requisições com Idempotency-Key, em memória, com tamanho e validade limitados.
+// A primeira requisição com uma chave executa; as repetidas dentro da validade recebem o mesmo
+// resultado (ou o mesmo erro de negócio) sem executar de novo, e as que chegam enquanto a
+// primeira ainda está rodando esperam por ela. Falhas inesperadas não ficam guardadas.
+@Component
+public class IdempotencyStore {
+
+    private final Cache<String, Entry> entries;
+    private final Counter replays;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${api.idempotency.max-size:100000}") long maxSize,
+                            @Value("${api.idempotency.ttl:10m}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+        this.replays = Counter.builder("checkfit.idempotency.replays")
+                .description("Requests answered from a previous response with the same Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    // fingerprint identifica o conteúdo da requisição: a mesma chave com outro conteúdo é recusada
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object fingerprint, Supplier<T> action) {
+        var mine = new Entry(fingerprint, new CompletableFuture<>());
+        var existing = entries.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                throw new BusinessExceptions("Idempotency-Key was already used for a different request");
+            }
+            replays.increment();
+            return (T) await(existing.result);
+        }
+
+        try {
+            T result = action.get();
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            if (!isClientError(e)) {
+                entries.asMap().remove(key, mine);
+            }
+            throw e;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // erros que se repetiriam numa nova tentativa; o resto (banco fora, servidor ocupado) pode dar certo depois
+    private static boolean isClientError(RuntimeException e) {
+        return e instanceof BusinessExceptions
+                || e instanceof ResponseStatusException status && status.getStatusCode().is4xxClientError();
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<Object> result) {
+    }
+}
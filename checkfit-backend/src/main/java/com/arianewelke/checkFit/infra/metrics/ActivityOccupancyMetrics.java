@@ -0,0 +1,56 @@
+package com.arianewelke.checkFit.infra.metrics;
+
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Ocupação das atividades que começam nas próximas horas. Os valores são lidos do banco numa
+// consulta só, de tempos em tempos; o scrape do Prometheus só lê o último resultado.
+@Component
+public class ActivityOccupancyMetrics {
+
+    private final ActivityRepository activityRepository;
+    private final Clock clock;
+    private final int windowHours;
+    private final MultiGauge occupied;
+    private final MultiGauge capacity;
+
+    public ActivityOccupancyMetrics(ActivityRepository activityRepository, Clock clock, MeterRegistry meterRegistry,
+                                    @Value("${api.metrics.occupancy.window-hours:24}") int windowHours) {
+        this.activityRepository = activityRepository;
+        this.clock = clock;
+        this.windowHours = windowHours;
+        this.occupied = MultiGauge.builder("checkfit.activity.occupied.slots")
+                .description("Occupied slots of activities starting soon")
+                .register(meterRegistry);
+        this.capacity = MultiGauge.builder("checkfit.activity.capacity.slots")
+                .description("Total slots of activities starting soon")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${api.metrics.occupancy.refresh-ms:30000}")
+    public void refresh() {
+        var now = LocalDateTime.now(clock);
+        List<AvailabilityResponseDTO> upcoming = activityRepository.findAvailabilityBetween(now, now.plusHours(windowHours));
+        // overwrite = true remove as atividades que saíram da janela
+        occupied.register(upcoming.stream()
+                .map(a -> MultiGauge.Row.of(tags(a), a.occupiedSlots()))
+                .toList(), true);
+        capacity.register(upcoming.stream()
+                .map(a -> MultiGauge.Row.of(tags(a), a.totalSlots()))
+                .toList(), true);
+    }
+
+    private static Tags tags(AvailabilityResponseDTO activity) {
+        return Tags.of("activity", String.valueOf(activity.activityId()));
+    }
+}
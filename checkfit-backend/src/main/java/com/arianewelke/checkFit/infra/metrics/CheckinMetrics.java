@@ -0,0 +1,46 @@
+package com.arianewelke.checkFit.infra.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// contadores de recusa de check-in, um por motivo; registrados uma vez para o incremento não alocar nada
+@Component
+public class CheckinMetrics {
+
+    public static final String FULL = "full";
+    public static final String FINISHED = "finished";
+    public static final String DUPLICATE = "duplicate";
+    public static final String ALREADY_TODAY = "already_today";
+
+    private final Map<String, Counter> rejections;
+    private final Counter promotions;
+
+    public CheckinMetrics(MeterRegistry meterRegistry) {
+        this.rejections = Map.of(
+                FULL, rejectionCounter(meterRegistry, FULL),
+                FINISHED, rejectionCounter(meterRegistry, FINISHED),
+                DUPLICATE, rejectionCounter(meterRegistry, DUPLICATE),
+                ALREADY_TODAY, rejectionCounter(meterRegistry, ALREADY_TODAY));
+        this.promotions = Counter.builder("checkfit.waitlist.promotions")
+                .description("Waitlisted members checked in when a slot was freed")
+                .register(meterRegistry);
+    }
+
+    public void rejected(String reason) {
+        rejections.get(reason).increment();
+    }
+
+    public void promoted() {
+        promotions.increment();
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("checkfit.checkin.rejections")
+                .description("Check-ins refused, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.arianewelke.checkFit.infra.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// conta os statements preparados pela thread atual; StatementMetricsFilter zera e lê o contador a cada request
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,316 @@
+package com.arianewelke.checkFit.infra.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.StringJoiner;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Bancos criados pelo antigo ddl-auto=update não têm histórico do Flyway: o baseline-on-migrate marca
+// esses bancos como versão 1 sem rodar V1__create_schema, e sem isto faltariam as colunas, tabelas e
+// constraints que o V1 cria (e o ddl-auto=validate derrubaria a subida). Logo depois do baseline, e só
+// nele, completa o schema até o estado do V1; cada passo confere antes o que já existe, porque o
+// update pode ter criado parte disso. Um banco novo nunca passa por aqui: o V1 roda inteiro.
+//
+// O banco antigo aceitava dados que as constraints únicas do V1 recusam. Check-ins repetidos (mesma
+// aula ou mesmo dia) vão para checkin_archive, fica o mais antigo; continuam no histórico. Contas
+// com email, CPF ou telefone repetidos não têm como ser juntadas automaticamente: a subida para com a
+// lista dos valores e ids, para serem corrigidos à mão antes de tentar de novo. Essa conferência roda
+// já antes do baseline, sem nada gravado no histórico, para a próxima subida refazer tudo.
+@Component
+public class LegacySchemaUpgrade implements Callback {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacySchemaUpgrade.class);
+
+    // mesmas definições do V1__create_schema.sql, para as tabelas que o banco antigo nem tinha
+    private static final Map<String, String> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("user", """
+                create table user (
+                    id bigint not null auto_increment,
+                    name varchar(255),
+                    email varchar(255),
+                    phone varchar(255),
+                    cpf varchar(255),
+                    date_birth date,
+                    password varchar(255),
+                    created_at datetime(6),
+                    primary key (id)
+                ) engine=InnoDB""");
+        TABLES.put("activity", """
+                create table activity (
+                    id bigint not null,
+                    start_time datetime(6),
+                    finish_time datetime(6),
+                    description varchar(255),
+                    limit_people integer not null,
+                    primary key (id)
+                ) engine=InnoDB""");
+        TABLES.put("checkin", """
+                create table checkin (
+                    id bigint not null auto_increment,
+                    user_id bigint,
+                    activity_id bigint,
+                    checkin_time datetime(6),
+                    primary key (id),
+                    constraint fk_checkin_user foreign key (user_id) references user (id),
+                    constraint fk_checkin_activity foreign key (activity_id) references activity (id)
+                ) engine=InnoDB""");
+        TABLES.put("checkin_archive", """
+                create table checkin_archive (
+                    id bigint not null,
+                    user_id bigint,
+                    activity_id bigint,
+                    checkin_time datetime(6),
+                    checkin_date date,
+                    primary key (id),
+                    constraint fk_checkin_archive_user foreign key (user_id) references user (id),
+                    constraint fk_checkin_archive_activity foreign key (activity_id) references activity (id)
+                ) engine=InnoDB""");
+        TABLES.put("waitlist_entry", """
+                create table waitlist_entry (
+                    id bigint not null auto_increment,
+                    user_id bigint,
+                    activity_id bigint,
+                    created_at datetime(6),
+                    primary key (id),
+                    constraint fk_waitlist_entry_user foreign key (user_id) references user (id),
+                    constraint fk_waitlist_entry_activity foreign key (activity_id) references activity (id)
+                ) engine=InnoDB""");
+        TABLES.put("attendance_summary", """
+                create table attendance_summary (
+                    id bigint not null auto_increment,
+                    dimension enum ('ACTIVITY','MEMBER','MONTH','WEEKDAY') not null,
+                    bucket varchar(32) not null,
+                    checkins bigint not null,
+                    primary key (id)
+                ) engine=InnoDB""");
+    }
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.BEFORE_BASELINE || event == Event.AFTER_BASELINE;
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        try {
+            if (event == Event.BEFORE_BASELINE) {
+                checkAccounts(new Schema(context.getConnection()));
+            } else {
+                upgrade(context.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new FlywayException("Could not bring the legacy schema up to version 1", e);
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "legacy-schema-upgrade";
+    }
+
+    void upgrade(Connection connection) throws SQLException {
+        var schema = new Schema(connection);
+        checkAccounts(schema);
+        for (var table : TABLES.entrySet()) {
+            schema.createTable(table.getKey(), table.getValue());
+        }
+
+        schema.addColumn("activity", "occupied_slots", "integer not null default 0");
+        schema.addColumn("activity", "version", "bigint not null default 0");
+        schema.addColumn("activity", "updated_at", "datetime(6)");
+        schema.addIndex("activity", "idx_activity_start_time", false, "start_time", "id");
+        // o V2 avança a sequência para depois do maior id que o IDENTITY antigo gerou
+        if (schema.createTable("activity_seq", "create table activity_seq (next_val bigint) engine=InnoDB")) {
+            schema.execute("insert into activity_seq values (1)");
+        }
+
+        schema.addIndex("user", "uk_user_email", true, "email");
+        schema.addIndex("user", "uk_user_cpf", true, "cpf");
+        schema.addIndex("user", "uk_user_phone", true, "phone");
+
+        schema.addColumn("checkin", "checkin_date", "date");
+        schema.execute("update checkin set checkin_date = cast(checkin_time as date) where checkin_date is null");
+        archiveDuplicateCheckins(schema);
+        schema.addIndex("checkin", "uk_checkin_user_activity", true, "user_id", "activity_id");
+        schema.addIndex("checkin", "uk_checkin_user_day", true, "user_id", "checkin_date");
+        schema.addIndex("checkin", "idx_checkin_user_time", false, "user_id", "checkin_time");
+        // coluna desnormalizada recalculada uma vez aqui, antes de qualquer tráfego; na subida da aplicação
+        // SlotReservationEngine.synchronize só acerta as atividades que ainda não terminaram
+        schema.execute("update activity a set occupied_slots = (select count(*) from checkin c where c.activity_id = a.id) "
+                + "+ (select count(*) from checkin_archive ac where ac.activity_id = a.id)");
+
+        schema.addIndex("checkin_archive", "idx_checkin_archive_user_time", false, "user_id", "checkin_time");
+        schema.addIndex("checkin_archive", "idx_checkin_archive_activity", false, "activity_id");
+        schema.addIndex("waitlist_entry", "uk_waitlist_user_activity", true, "user_id", "activity_id");
+        schema.addIndex("waitlist_entry", "idx_waitlist_activity", false, "activity_id", "id");
+        schema.addIndex("attendance_summary", "uk_attendance_summary_bucket", true, "dimension", "bucket");
+
+        if (!schema.changes.isEmpty()) {
+            log.info("Upgraded legacy schema to version 1: {}", schema.changes);
+        }
+    }
+
+    private static void checkAccounts(Schema schema) throws SQLException {
+        if (!schema.hasTable("user")) {
+            return;
+        }
+        var duplicates = new StringJoiner("; ");
+        for (var column : List.of("email", "cpf", "phone")) {
+            schema.reportDuplicates("user", column, duplicates);
+        }
+        if (duplicates.length() > 0) {
+            throw new FlywayException("Legacy user table has values that the unique constraints of version 1 reject ("
+                    + duplicates + "). Merge or change these accounts and restart the application.");
+        }
+    }
+
+    // um check-in é repetido se o mesmo usuário tem outro, de id menor, na mesma aula ou no mesmo dia
+    private static void archiveDuplicateCheckins(Schema schema) throws SQLException {
+        var repeated = "exists (select 1 from checkin o where o.user_id = c.user_id and o.id < c.id "
+                + "and (o.activity_id = c.activity_id or o.checkin_date = c.checkin_date))";
+        int moved = schema.update("insert into checkin_archive (id, user_id, activity_id, checkin_time, checkin_date) "
+                + "select c.id, c.user_id, c.activity_id, c.checkin_time, c.checkin_date from checkin c where " + repeated);
+        if (moved > 0) {
+            schema.update("delete from checkin where id in (select id from checkin_archive)");
+            schema.changes.add(moved + " duplicate check-ins archived");
+            log.warn("Moved {} legacy check-ins that repeat an activity or a day of the same member to checkin_archive", moved);
+        }
+    }
+
+    // Consultas ao catálogo pelo JDBC, que funcionam igual no MySQL e no H2 dos testes. Índices são
+    // comparados pelas colunas, não pelo nome: o update do Hibernate gerava nomes próprios.
+    private static final class Schema {
+
+        private final Connection connection;
+        private final DatabaseMetaData metaData;
+        private final List<String> changes = new ArrayList<>();
+
+        Schema(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.metaData = connection.getMetaData();
+        }
+
+        boolean createTable(String table, String ddl) throws SQLException {
+            if (hasTable(table)) {
+                return false;
+            }
+            execute(ddl);
+            changes.add("table " + table);
+            return true;
+        }
+
+        void addColumn(String table, String column, String definition) throws SQLException {
+            try (var columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), identifier(table), identifier(column))) {
+                if (columns.next()) {
+                    return;
+                }
+            }
+            execute("alter table " + table + " add column " + column + " " + definition);
+            changes.add(table + "." + column);
+        }
+
+        void addIndex(String table, String name, boolean unique, String... columns) throws SQLException {
+            if (hasIndex(table, unique, columns)) {
+                return;
+            }
+            var columnList = String.join(", ", columns);
+            execute(unique
+                    ? "alter table " + table + " add constraint " + name + " unique (" + columnList + ")"
+                    : "create index " + name + " on " + table + " (" + columnList + ")");
+            changes.add(name);
+        }
+
+        void execute(String sql) throws SQLException {
+            try (var statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }
+
+        int update(String sql) throws SQLException {
+            try (var statement = connection.createStatement()) {
+                return statement.executeUpdate(sql);
+            }
+        }
+
+        // valores repetidos (até 20) com os ids de cada um; nada a fazer se a constraint já existe
+        void reportDuplicates(String table, String column, StringJoiner report) throws SQLException {
+            if (hasIndex(table, true, column)) {
+                return;
+            }
+            var values = new ArrayList<String>();
+            try (var statement = connection.createStatement();
+                 var rows = statement.executeQuery("select " + column + " from " + table + " where " + column
+                         + " is not null group by " + column + " having count(*) > 1 order by " + column + " limit 20")) {
+                while (rows.next()) {
+                    values.add(rows.getString(1));
+                }
+            }
+            for (var value : values) {
+                var ids = new StringJoiner(", ");
+                try (var statement = connection.prepareStatement("select id from " + table + " where " + column + " = ? order by id")) {
+                    statement.setString(1, value);
+                    try (var rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            ids.add(rows.getString(1));
+                        }
+                    }
+                }
+                report.add(table + "." + column + " '" + value + "' in ids " + ids);
+            }
+        }
+
+        private boolean hasTable(String table) throws SQLException {
+            try (var tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), identifier(table), null)) {
+                return tables.next();
+            }
+        }
+
+        // um índice que já começa pelas mesmas colunas serve (para unique, precisa ser exatamente elas)
+        private boolean hasIndex(String table, boolean unique, String... columns) throws SQLException {
+            Map<String, List<String>> indexes = new LinkedHashMap<>();
+            try (var rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), identifier(table), unique, false)) {
+                while (rows.next()) {
+                    var name = rows.getString("INDEX_NAME");
+                    var column = rows.getString("COLUMN_NAME");
+                    if (name == null || column == null) {
+                        continue;
+                    }
+                    var indexColumns = indexes.computeIfAbsent(name, key -> new ArrayList<>());
+                    int position = rows.getShort("ORDINAL_POSITION");
+                    while (indexColumns.size() < position) {
+                        indexColumns.add(null);
+                    }
+                    indexColumns.set(position - 1, column.toLowerCase(Locale.ROOT));
+                }
+            }
+            var wanted = List.of(columns);
+            return indexes.values().stream().anyMatch(indexColumns -> unique
+                    ? indexColumns.equals(wanted)
+                    : indexColumns.size() >= wanted.size() && indexColumns.subList(0, wanted.size()).equals(wanted));
+        }
+
+        private String identifier(String name) throws SQLException {
+            return metaData.storesUpperCaseIdentifiers() ? name.toUpperCase() : name;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.arianewelke.checkFit.infra.reservation;
+
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Contador de ocupação em memória por atividade. Cada atividade tem o seu próprio slot,
+// então não existe lock compartilhado entre atividades. O slot é semeado a partir da coluna
+// activity.occupiedSlots no primeiro acesso (inclusive depois de um restart) e reconciliado
+// periodicamente. Ele só filtra o que já está lotado: quem garante o limite é o update
+// condicional em ActivityRepository.reserveSlot.
+//
+// Slots sem acesso há idle saem do mapa (atividades que já terminaram não recebem check-in),
+// e a reconciliação lê a contagem de todos os slots vivos em lotes de id in (...).
+@Component
+public class SlotReservationEngine {
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final ActivityRepository activityRepository;
+    private final Clock clock;
+    private final Cache<Long, Slot> slots;
+
+    public SlotReservationEngine(ActivityRepository activityRepository, Clock clock,
+                                 @Value("${api.checkin.reservation.idle:1h}") Duration idle) {
+        this.activityRepository = activityRepository;
+        this.clock = clock;
+        this.slots = Caffeine.newBuilder()
+                .expireAfterAccess(idle)
+                .build();
+    }
+
+    // toda reserva aceita precisa terminar em confirm() ou release()
+    public boolean tryReserve(Long activityId, int limitPeople) {
+        return slotFor(activityId).tryReserve(limitPeople);
+    }
+
+    // a reserva virou um check-in gravado no banco
+    public void confirm(Long activityId) {
+        Slot slot = slots.getIfPresent(activityId);
+        if (slot != null) {
+            slot.confirm();
+        }
+    }
+
+    // a reserva falhou antes de ser gravada
+    public void release(Long activityId) {
+        Slot slot = slots.getIfPresent(activityId);
+        if (slot != null) {
+            slot.release();
+        }
+    }
+
+    // um check-in já gravado foi removido
+    public void free(Long activityId) {
+        Slot slot = slots.getIfPresent(activityId);
+        if (slot != null) {
+            slot.free();
+        }
+    }
+
+    public int occupancy(Long activityId) {
+        return slotFor(activityId).occupied();
+    }
+
+    public void evict(Long activityId) {
+        slots.invalidate(activityId);
+    }
+
+    int size() {
+        slots.cleanUp();
+        return (int) slots.estimatedSize();
+    }
+
+    // Corrige a coluna desnormalizada depois de um crash ou de alterações feitas direto no banco. Só as
+    // atividades que ainda não terminaram, que são as únicas que recebem check-in, e por id em lotes
+    // (uma transação curta por lote): num deploy gradual a outra instância segue fazendo check-ins e
+    // nenhum update trava a tabela inteira.
+    @EventListener(ApplicationReadyEvent.class)
+    public void synchronize() {
+        var ids = activityRepository.findIdsFinishingFrom(LocalDateTime.now(clock));
+        for (int from = 0; from < ids.size(); from += RECONCILE_BATCH_SIZE) {
+            activityRepository.syncOccupiedSlots(ids.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, ids.size())));
+        }
+        slots.invalidateAll();
+    }
+
+    @Scheduled(fixedDelayString = "${api.checkin.reservation.reconcile-ms:300000}")
+    public void reconcile() {
+        reseed(slot -> true);
+    }
+
+    // slots cuja última semente pode ter contado um check-in duas vezes (ou nenhuma) são
+    // semeados de novo logo, até uma leitura sem reservas em andamento
+    @Scheduled(fixedDelayString = "${api.checkin.reservation.hot-reconcile-ms:1000}")
+    public void reconcileHot() {
+        reseed(slot -> slot.suspect);
+    }
+
+    private void reseed(Predicate<Slot> which) {
+        List<Map.Entry<Long, Slot>> batch = new ArrayList<>(RECONCILE_BATCH_SIZE);
+        for (var entry : slots.asMap().entrySet()) {
+            if (which.test(entry.getValue())) {
+                batch.add(entry);
+            }
+            if (batch.size() == RECONCILE_BATCH_SIZE) {
+                reseed(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            reseed(batch);
+        }
+    }
+
+    // A consulta roda fora dos locks; cada slot anota antes dela quantas reservas já confirmou.
+    private void reseed(List<Map.Entry<Long, Slot>> batch) {
+        var confirmedBefore = batch.stream().map(entry -> entry.getValue().confirmed.get()).toList();
+        Map<Long, Long> persisted = activityRepository.findAvailabilityByIdIn(batch.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(AvailabilityResponseDTO::activityId, AvailabilityResponseDTO::occupiedSlots));
+        for (int i = 0; i < batch.size(); i++) {
+            var entry = batch.get(i);
+            entry.getValue().seed(persisted.getOrDefault(entry.getKey(), 0L), confirmedBefore.get(i));
+        }
+    }
+
+    private Slot slotFor(Long activityId) {
+        Slot slot = slots.get(activityId, id -> new Slot());
+        if (!slot.seeded) {
+            slot.seedOnce(() -> persistedOccupancy(activityId));
+        }
+        return slot;
+    }
+
+    private long persistedOccupancy(Long activityId) {
+        return activityRepository.findOccupiedSlotsById(activityId).orElse(0);
+    }
+
+    private static final class Slot {
+
+        // occupied inclui as reservas pendentes; pending são as que ainda não foram confirmadas
+        private final AtomicInteger occupied = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+        // total de confirmações, só para saber se alguma aconteceu durante a leitura do banco
+        private final AtomicLong confirmed = new AtomicLong();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean seeded;
+        private volatile boolean suspect;
+
+        boolean tryReserve(int limitPeople) {
+            lock.readLock().lock();
+            try {
+                int current;
+                do {
+                    current = occupied.get();
+                    if (current >= limitPeople) {
+                        return false;
+                    }
+                } while (!occupied.compareAndSet(current, current + 1));
+                pending.incrementAndGet();
+                return true;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void confirm() {
+            lock.readLock().lock();
+            try {
+                pending.decrementAndGet();
+                confirmed.incrementAndGet();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void release() {
+            lock.readLock().lock();
+            try {
+                pending.decrementAndGet();
+                occupied.decrementAndGet();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void free() {
+            lock.readLock().lock();
+            try {
+                occupied.updateAndGet(value -> Math.max(value - 1, 0));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int occupied() {
+            return occupied.get();
+        }
+
+        // no primeiro acesso ainda não há reservas neste slot, então a leitura sob o lock é exata
+        void seedOnce(CountSource source) {
+            lock.writeLock().lock();
+            try {
+                if (!seeded) {
+                    occupied.set((int) source.count() + pending.get());
+                    seeded = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Só é exata se nada estava pendente nem foi confirmado entre a leitura e aqui: um check-in
+        // gravado antes da leitura e ainda pendente conta duas vezes, um gravado e confirmado
+        // depois dela não conta. Nesses casos o slot fica suspect e reconcileHot lê de novo.
+        void seed(long persisted, long confirmedBefore) {
+            lock.writeLock().lock();
+            try {
+                int inFlight = pending.get();
+                occupied.set((int) persisted + inFlight);
+                suspect = inFlight > 0 || confirmed.get() != confirmedBefore;
+                seeded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface CountSource {
+        long count();
+    }
+}
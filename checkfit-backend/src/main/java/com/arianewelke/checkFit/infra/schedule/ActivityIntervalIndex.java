@@ -0,0 +1,157 @@
+package com.arianewelke.checkFit.infra.schedule;
+
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Índice em memória das atividades que ainda não terminaram, ordenado pelo início e pelo fim.
+// "O que está aberto agora" são as entradas com início <= agora (o índice só guarda quem não
+// terminou), e as que terminam saem pela ordem do fim, sem varrer nada. As leituras não travam;
+// as escritas são aplicadas depois do commit e a carga completa é refeita de tempos em tempos
+// para pegar alterações feitas por outras instâncias ou direto no banco.
+@Component
+public class ActivityIntervalIndex {
+
+    private final ActivityRepository activityRepository;
+    private final Clock clock;
+    private final ConcurrentSkipListMap<Key, ActivityResponseDTO> byStart = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Key, Long> byFinish = new ConcurrentSkipListMap<>();
+    private final Map<Long, ActivityResponseDTO> byId = new ConcurrentHashMap<>();
+    // muda a cada alteração do conteúdo; junto com o id da instância vira o ETag das listagens
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    public ActivityIntervalIndex(ActivityRepository activityRepository, Clock clock) {
+        this.activityRepository = activityRepository;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${api.activity.index.reload-ms:300000}", initialDelayString = "${api.activity.index.reload-ms:300000}")
+    public synchronized void reload() {
+        var open = activityRepository.findScheduleNotFinishedAt(LocalDateTime.now(clock));
+        byStart.clear();
+        byFinish.clear();
+        byId.clear();
+        open.forEach(this::add);
+        version.incrementAndGet();
+    }
+
+    // ETag de notFinished()/openNow(). openNow() também muda quando uma atividade começa, por isso
+    // o instante do início mais recente já alcançado entra no ETag dela.
+    public String etag() {
+        prune();
+        return "\"" + instanceId + "-" + version.get() + "\"";
+    }
+
+    public String openNowEtag() {
+        prune();
+        var started = byStart.floorKey(new Key(LocalDateTime.now(clock), Long.MAX_VALUE));
+        return "\"" + instanceId + "-" + version.get() + "-" + (started == null ? 0 : started.id) + "\"";
+    }
+
+    // atividades que ainda não terminaram, pela ordem de início
+    public List<ActivityResponseDTO> notFinished() {
+        prune();
+        return List.copyOf(byStart.values());
+    }
+
+    // atividades em andamento neste instante
+    public List<ActivityResponseDTO> openNow() {
+        prune();
+        var now = LocalDateTime.now(clock);
+        var open = new ArrayList<ActivityResponseDTO>();
+        for (ActivityResponseDTO activity : byStart.headMap(new Key(now, Long.MAX_VALUE), true).values()) {
+            if (!activity.finishTime().isBefore(now)) {
+                open.add(activity);
+            }
+        }
+        return open;
+    }
+
+    public void changed(ActivityResponseDTO activity) {
+        afterCommit(() -> put(activity));
+    }
+
+    public void changed(List<ActivityResponseDTO> activities) {
+        afterCommit(() -> activities.forEach(this::put));
+    }
+
+    public void removed(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private synchronized void put(ActivityResponseDTO activity) {
+        remove(activity.id());
+        if (!activity.finishTime().isBefore(LocalDateTime.now(clock))) {
+            add(activity);
+        }
+        version.incrementAndGet();
+    }
+
+    private synchronized void remove(Long id) {
+        var previous = byId.remove(id);
+        if (previous != null) {
+            byStart.remove(new Key(previous.startTime(), previous.id()));
+            byFinish.remove(new Key(previous.finishTime(), previous.id()));
+            version.incrementAndGet();
+        }
+    }
+
+    private void add(ActivityResponseDTO activity) {
+        byId.put(activity.id(), activity);
+        byStart.put(new Key(activity.startTime(), activity.id()), activity);
+        byFinish.put(new Key(activity.finishTime(), activity.id()), activity.id());
+    }
+
+    // tira as que terminaram; só trava quando de fato existe alguma vencida
+    private void prune() {
+        var now = LocalDateTime.now(clock);
+        var first = byFinish.firstEntry();
+        if (first == null || !first.getKey().time.isBefore(now)) {
+            return;
+        }
+        synchronized (this) {
+            Map.Entry<Key, Long> expired;
+            while ((expired = byFinish.firstEntry()) != null && expired.getKey().time.isBefore(now)) {
+                remove(expired.getValue());
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Key(LocalDateTime time, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
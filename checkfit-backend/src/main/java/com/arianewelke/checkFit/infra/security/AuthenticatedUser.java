@@ -0,0 +1,19 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.arianewelke.checkFit.entity.User;
+
+import java.security.Principal;
+
+// principal imutável guardado no SecurityContext no lugar da entidade User
+public record AuthenticatedUser(Long id, String email, String name) implements Principal {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName());
+    }
+
+    // o Spring Security usa getName() como nome da autenticação, que aqui é o email
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,78 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+
+// Cache de token já verificado -> principal, para não verificar o JWT nem ir ao banco a cada request.
+// Cada entrada expira junto com o token (expiresAt do JWT) e o tamanho é limitado pelo Caffeine,
+// que descarta as menos usadas sem varrer o mapa. O tempo vem do Clock, como no resto da aplicação.
+@Component
+public class AuthenticationCache {
+
+    private final Cache<String, Entry> entries;
+    private final Clock clock;
+
+    public AuthenticationCache(@Value("${api.security.token.cache-size:10000}") int maxSize, Clock clock) {
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(() -> nanos(clock.instant()))
+                .scheduler(Scheduler.systemScheduler())
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    public AuthenticatedUser get(String token) {
+        var entry = entries.getIfPresent(token);
+        return entry == null ? null : entry.principal();
+    }
+
+    public void put(String token, AuthenticatedUser principal, Instant expiresAt) {
+        if (expiresAt == null || !expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        entries.put(token, new Entry(principal, expiresAt));
+    }
+
+    // chamado quando o usuário é alterado ou removido
+    public void invalidateUser(Long userId) {
+        entries.asMap().values().removeIf(entry -> entry.principal().id().equals(userId));
+    }
+
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private record Entry(AuthenticatedUser principal, Instant expiresAt) {
+    }
+
+    private final class UntilTokenExpires implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String token, Entry entry, long currentTime) {
+            return Math.max(nanos(entry.expiresAt()) - currentTime, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// BCrypt roda num pool próprio, do tamanho dos núcleos e com fila limitada, para não ocupar as threads do Tomcat.
+// Com o pool saturado a tarefa é rejeitada na hora (RejectedExecutionException -> 503).
+// O pool só calcula hashes: os futures completam no executor de tarefas da aplicação, então o que vem
+// depois (insert do cadastro, JWT, regravação do hash) nunca segura uma thread de BCrypt.
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final ExecutorService executor;
+    private final Executor completionExecutor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder, UserRepository userRepository, MeterRegistry meterRegistry,
+                                  @Value("${api.security.hashing.threads:0}") int threads,
+                                  @Value("${api.security.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor completionExecutor) {
+        this(passwordEncoder, userRepository, meterRegistry, newExecutor(threads, queueCapacity), completionExecutor);
+    }
+
+    PasswordHashingService(PasswordEncoder passwordEncoder, UserRepository userRepository, MeterRegistry meterRegistry,
+                           ExecutorService executor, Executor completionExecutor) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+        this.completionExecutor = completionExecutor;
+        this.encodeTimer = Timer.builder("checkfit.password.hashing")
+                .tag("operation", "encode")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("checkfit.password.hashing")
+                .tag("operation", "matches")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // se o custo configurado mudou, regrava o hash com a senha que acabou de ser validada
+    public void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            encode(rawPassword).thenAccept(hash -> userRepository.updatePassword(user.getId(), hash))
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash password of user {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            // pool cheio: tenta de novo no próximo login
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> timer.record(task), executor)
+                .thenApplyAsync(Function.identity(), completionExecutor);
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
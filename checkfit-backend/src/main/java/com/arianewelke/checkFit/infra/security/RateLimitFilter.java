@@ -0,0 +1,388 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limite de taxa por rota (token bucket), antes do SecurityFilter: login e cadastro rodam BCrypt e o
+// check-in várias consultas, então o excesso de um cliente não pode chegar lá. As rotas de login e
+// cadastro contam por IP; o check-in conta pelo usuário do token (subject do JWT verificado, ou o
+// principal já em cache) e por IP só quando não há token válido. Assim uma instância recém-subida, com
+// o cache vazio, não junta todos os membros atrás do NAT da academia num balde só.
+//
+// O balde de IP do login é largo, porque a academia inteira pode sair por um mesmo NAT; quem segura
+// tentativas de senha é um segundo balde por conta e IP (o email do corpo), que só consome quando o
+// login falha. Quem erra a senha de outra conta de outro endereço não bloqueia o dono dela.
+// Atrás de proxy (nginx, Docker) o IP vem de client-ip-header, mas só quando a conexão chega de um
+// dos trusted-proxies; de qualquer outro endereço o cabeçalho é ignorado.
+//
+// Cada balde é um único long atualizado por CAS (GCRA): o instante em que ele volta a ficar cheio.
+// Um balde cheio equivale a um balde inexistente, então a limpeza periódica remove esses sem mudar o
+// comportamento. Com max-keys baldes em uso, só saem os que já estão cheios; se não houver nenhum,
+// a chave nova recebe 429 em vez de apagar o consumo de outro cliente.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final AuthenticationCache authenticationCache;
+    private final TokenService tokenService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int maxKeys;
+    private final Map<String, Rule> rules;
+    private final Rule loginAccount;
+    private final ObjectMapper objectMapper;
+    private final String clientIpHeader;
+    private final List<IpAddressMatcher> trustedProxies;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // com o mapa cheio, no máximo uma limpeza por segundo dentro das requisições
+    private final AtomicLong lastFullSweep = new AtomicLong();
+    private final Counter rejections;
+
+    public RateLimitFilter(AuthenticationCache authenticationCache, TokenService tokenService, Clock clock,
+                           MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                           @Value("${api.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${api.rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${api.rate-limit.client-ip-header:X-Forwarded-For}") String clientIpHeader,
+                           @Value("${api.rate-limit.trusted-proxies:}") List<String> trustedProxies,
+                           @Value("${api.rate-limit.login.capacity:60}") int loginCapacity,
+                           @Value("${api.rate-limit.login.period:1m}") Duration loginPeriod,
+                           @Value("${api.rate-limit.login.account.capacity:10}") int loginAccountCapacity,
+                           @Value("${api.rate-limit.login.account.period:15m}") Duration loginAccountPeriod,
+                           @Value("${api.rate-limit.register.capacity:20}") int registerCapacity,
+                           @Value("${api.rate-limit.register.period:10m}") Duration registerPeriod,
+                           @Value("${api.rate-limit.checkin.capacity:20}") int checkinCapacity,
+                           @Value("${api.rate-limit.checkin.period:1m}") Duration checkinPeriod) {
+        this.authenticationCache = authenticationCache;
+        this.tokenService = tokenService;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.objectMapper = objectMapper;
+        this.clientIpHeader = clientIpHeader;
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+        this.loginAccount = new Rule("login-account", loginAccountCapacity, loginAccountPeriod, false);
+        this.rules = Map.of(
+                "POST /auth/login", new Rule("login", loginCapacity, loginPeriod, false),
+                "POST /auth/register", new Rule("register", registerCapacity, registerPeriod, false),
+                "POST /checkin", new Rule("checkin", checkinCapacity, checkinPeriod, true));
+        this.rejections = Counter.builder("checkfit.http.rate-limit.rejections")
+                .description("Requests refused with 429 by the per-route rate limit")
+                .register(meterRegistry);
+        Gauge.builder("checkfit.http.rate-limit.buckets", buckets, Map::size)
+                .description("Rate limit buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var rule = enabled ? rules.get(request.getMethod() + " " + request.getServletPath()) : null;
+        if (rule == null || rule.capacity() < 1) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        var ip = clientIp(request);
+        long retryAfterNanos = acquire(rule.name() + ":" + client(request, rule, ip), rule);
+        String accountKey = null;
+        if (retryAfterNanos == 0 && rule.name().equals("login") && loginAccount.capacity() > 0) {
+            var body = new CachedBodyRequest(request);
+            request = body;
+            var account = loginAccount(body);
+            if (account != null) {
+                accountKey = loginAccount.name() + ":" + account + "|" + ip;
+                retryAfterNanos = waitFor(accountKey, loginAccount);
+            }
+        }
+        if (retryAfterNanos > 0) {
+            rejections.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterNanos + 999_999_999L) / 1_000_000_000L));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests, please try again later\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+        if (accountKey != null) {
+            chargeIfFailed(request, response, accountKey);
+        }
+    }
+
+    // o login responde de forma assíncrona (CompletableFuture): o status final só existe no fim do async
+    private void chargeIfFailed(HttpServletRequest request, HttpServletResponse response, String accountKey) {
+        if (!request.isAsyncStarted()) {
+            if (failed(response)) {
+                acquire(accountKey, loginAccount);
+            }
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                if (failed((HttpServletResponse) event.getSuppliedResponse())) {
+                    acquire(accountKey, loginAccount);
+                }
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private static boolean failed(HttpServletResponse response) {
+        return response.getStatus() >= 400 && response.getStatus() < 500;
+    }
+
+    // 0 se a requisição passa; senão, quanto falta (em nanos) para haver uma ficha
+    long acquire(String key, Rule rule) {
+        long now = nanos(clock.instant());
+        var bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !makeRoom(now)) {
+                return rule.intervalNanos();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + rule.intervalNanos();
+            if (next - now > rule.burstNanos()) {
+                return next - rule.burstNanos() - now;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // como acquire, mas sem consumir: quanto falta para haver uma ficha no balde
+    long waitFor(String key, Rule rule) {
+        var bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long now = nanos(clock.instant());
+        long next = Math.max(bucket.get(), now) + rule.intervalNanos();
+        return Math.max(next - rule.burstNanos() - now, 0);
+    }
+
+    // Tira os baldes que já voltaram a ficar cheios. Uma requisição concorrente pode consumir de um
+    // balde que acabou de sair do mapa; no pior caso aquele cliente ganha uma ficha a mais.
+    @Scheduled(fixedDelayString = "${api.rate-limit.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = nanos(clock.instant());
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    // só tira baldes já cheios, que não guardam consumo de ninguém; false se continuou sem espaço
+    private boolean makeRoom(long now) {
+        long last = lastFullSweep.get();
+        if (now - last >= 1_000_000_000L && lastFullSweep.compareAndSet(last, now)) {
+            evictIdle();
+        }
+        return buckets.size() < maxKeys;
+    }
+
+    // só confia no usuário de um token com assinatura e validade conferidas
+    private String client(HttpServletRequest request, Rule rule, String ip) {
+        if (rule.byUser()) {
+            var authHeader = request.getHeader("Authorization");
+            if (authHeader != null) {
+                var token = authHeader.replace("Bearer ", "");
+                var principal = authenticationCache.get(token);
+                if (principal != null) {
+                    return "user:" + principal.email();
+                }
+                var decoded = tokenService.verify(token);
+                if (decoded != null && decoded.getSubject() != null) {
+                    return "user:" + decoded.getSubject();
+                }
+            }
+        }
+        return "ip:" + ip;
+    }
+
+    // X-Forwarded-For: cliente, proxy1, proxy2 — cada proxy acrescenta à direita o endereço de quem
+    // falou com ele, então o cliente é o último endereço que não é um proxy confiável
+    String clientIp(HttpServletRequest request) {
+        var remote = request.getRemoteAddr();
+        if (trustedProxies.isEmpty() || clientIpHeader.isBlank() || !trusted(remote)) {
+            return remote;
+        }
+        var header = request.getHeader(clientIpHeader);
+        if (header == null || header.isBlank()) {
+            return remote;
+        }
+        var hops = header.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            var hop = hops[i].trim();
+            if (!hop.isEmpty() && !trusted(hop)) {
+                return hop;
+            }
+        }
+        return remote;
+    }
+
+    // só endereços literais: um nome no cabeçalho faria o IpAddressMatcher consultar o DNS
+    private boolean trusted(String address) {
+        if (!address.contains(":") && !address.matches("\\d{1,3}(\\.\\d{1,3}){3}")) {
+            return false;
+        }
+        try {
+            return trustedProxies.stream().anyMatch(proxy -> proxy.matches(address));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // email do corpo do login, normalizado; null se o corpo não é um JSON com email
+    private String loginAccount(CachedBodyRequest request) {
+        if (request.prefix.length == 0) {
+            return null;
+        }
+        try {
+            var email = objectMapper.readTree(request.prefix).path("email");
+            return email.isTextual() && !email.asText().isBlank() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    // Guarda o começo do corpo (até MAX_LOGIN_BODY bytes) para ler o email e devolve o corpo inteiro
+    // ao controller. Um corpo maior que isso não tem o email lido e conta só no balde de IP.
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private static final int MAX_LOGIN_BODY = 8192;
+
+        private final byte[] prefix;
+        private final InputStream body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            var original = request.getInputStream();
+            var read = original.readNBytes(MAX_LOGIN_BODY + 1);
+            this.prefix = read.length > MAX_LOGIN_BODY ? new byte[0] : read;
+            this.body = new SequenceInputStream(new ByteArrayInputStream(read), original);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int value = body.read();
+                    finished = value < 0;
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int count = body.read(buffer, offset, length);
+                    finished = count < 0;
+                    return count;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // o corpo já foi lido em modo bloqueante (readNBytes), então está sempre pronto: avisa o
+                // listener na hora e, quando ele tiver lido tudo, encerra
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!finished) {
+                            readListener.onDataAvailable();
+                        }
+                        if (finished) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            var encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(body, encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+
+    // capacity fichas, repostas de forma contínua ao longo de period
+    record Rule(String name, int capacity, Duration period, boolean byUser) {
+
+        long intervalNanos() {
+            return period.toNanos() / Math.max(capacity, 1);
+        }
+
+        long burstNanos() {
+            return intervalNanos() * capacity;
+        }
+    }
+}
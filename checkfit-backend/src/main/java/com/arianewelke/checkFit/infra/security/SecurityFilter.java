@@ -1,6 +1,5 @@
 package com.arianewelke.checkFit.infra.security;
 
-import com.arianewelke.checkFit.entity.User;
 import com.arianewelke.checkFit.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -14,35 +13,65 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private static final String STREAM_PATH = "/activity/stream";
+
     private final TokenService tokenService;
     private final UserRepository userRepository;
+    private final AuthenticationCache authenticationCache;
+    private final StreamTicketStore streamTicketStore;
 
-    public SecurityFilter(TokenService tokenService, UserRepository userRepository) {
+    public SecurityFilter(TokenService tokenService, UserRepository userRepository, AuthenticationCache authenticationCache,
+                          StreamTicketStore streamTicketStore) {
         this.tokenService = tokenService;
         this.userRepository = userRepository;
+        this.authenticationCache = authenticationCache;
+        this.streamTicketStore = streamTicketStore;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var token = this.recoverToken(request);
-        var login = tokenService.validateToken((String) token);
+        var principal = token != null ? this.authenticate(token) : this.redeemStreamTicket(request);
 
-        if (login != null) {
-            User user = userRepository.findByEmail(login).orElseThrow(() -> new RuntimeException("User Not Found"));
-            var authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
-            var authentication = new UsernamePasswordAuthenticationToken(user, null, authorities);
+        if (principal != null) {
+            var authentication = new UsernamePasswordAuthenticationToken(principal, null, AUTHORITIES);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
         filterChain.doFilter(request, response);
     }
 
+    private AuthenticatedUser authenticate(String token) {
+        if (token == null) return null;
+
+        var cached = authenticationCache.get(token);
+        if (cached != null) return cached;
+
+        var decodedJWT = tokenService.verify(token);
+        if (decodedJWT == null) return null;
+
+        var user = userRepository.findByEmail(decodedJWT.getSubject()).orElseThrow(() -> new RuntimeException("User Not Found"));
+        var principal = AuthenticatedUser.of(user);
+        authenticationCache.put(token, principal, decodedJWT.getExpiresAtAsInstant());
+        return principal;
+    }
+
     private String recoverToken(HttpServletRequest request) {
         var authHeader = request.getHeader("Authorization");
         if (authHeader == null) return null;
         return authHeader.replace("Bearer ", "");
     }
+
+    // o EventSource do navegador não envia cabeçalhos: o feed SSE aceita na query string um ticket
+    // de uso único (POST /activity/stream/ticket), nunca o JWT
+    private AuthenticatedUser redeemStreamTicket(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || !STREAM_PATH.equals(request.getServletPath())) return null;
+        return streamTicketStore.redeem(request.getParameter("ticket"));
+    }
 }
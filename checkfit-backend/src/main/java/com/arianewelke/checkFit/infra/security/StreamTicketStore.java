@@ -0,0 +1,41 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+// Tickets do feed SSE. O EventSource do navegador não envia cabeçalhos, então a credencial vai na
+// query string e acaba em logs de acesso e de proxy; por isso ela não é o JWT, e sim um valor
+// aleatório que só abre o feed, vale poucos segundos e é consumido no primeiro uso.
+@Component
+public class StreamTicketStore {
+
+    private final SecureRandom random = new SecureRandom();
+    private final Cache<String, AuthenticatedUser> tickets;
+
+    public StreamTicketStore(@Value("${api.activity.stream.ticket-ttl:30s}") Duration ttl,
+                             @Value("${api.activity.stream.max-tickets:100000}") long maxTickets) {
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(maxTickets)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public String issue(AuthenticatedUser principal) {
+        var bytes = new byte[32];
+        random.nextBytes(bytes);
+        var ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, principal);
+        return ticket;
+    }
+
+    // null se o ticket não existe, expirou ou já foi usado
+    public AuthenticatedUser redeem(String ticket) {
+        return ticket == null ? null : tickets.asMap().remove(ticket);
+    }
+}
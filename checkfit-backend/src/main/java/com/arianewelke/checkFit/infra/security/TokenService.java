@@ -2,6 +2,7 @@ package com.arianewelke.checkFit.infra.security;
 
 import com.arianewelke.checkFit.entity.User;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
@@ -9,23 +10,35 @@ import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 
 @Service
 public class TokenService  {
 //lógica de geração e validação dos tokens
-    @Value("${api.security.token.secret}") //vem la do properties
-    private String secret;
+    private static final String ISSUER = "login-auth-api";
+    private static final Duration TOKEN_VALIDITY = Duration.ofHours(2);
 
+    // o algoritmo e o verifier são thread-safe, então são criados uma vez só
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Clock clock;
+
+    public TokenService(@Value("${api.security.token.secret}") String secret, Clock clock) { //vem la do properties
+        this.algorithm = Algorithm.HMAC256(secret);
+        // o verifier confere a expiração pelo mesmo relógio que a gerou
+        this.verifier = ((JWTVerifier.BaseVerification) JWT.require(algorithm)
+                .withIssuer(ISSUER))
+                .build(clock);
+        this.clock = clock;
+    }
 
     public String generateToken(User user) {
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             //geração do token
             String token = JWT.create()
-                    .withIssuer("login-auth-api")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
                     .withExpiresAt(this.generateExpirationDate())
                     .sign(algorithm);
@@ -37,23 +50,23 @@ public class TokenService  {
 
     //validação do token
     public String validateToken(String token) {
-        try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            DecodedJWT decodedJWT = (DecodedJWT) JWT.require(algorithm)
-                    .withIssuer("login-auth-api")
-                    .build()
-                    .verify(token);
-
-            return decodedJWT.getSubject();
+        DecodedJWT decodedJWT = verify(token);
+        return decodedJWT == null ? null : decodedJWT.getSubject();
+    }
 
+    public DecodedJWT verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        try{
+            return verifier.verify(token);
         } catch (JWTVerificationException exception){
             return null;
         }
     }
 
     private Instant generateExpirationDate() {
-        return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of(String.valueOf(-3)));
-
+        return clock.instant().plus(TOKEN_VALIDITY);
     }
 
 }
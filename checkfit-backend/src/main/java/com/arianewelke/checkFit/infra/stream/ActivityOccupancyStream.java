@@ -0,0 +1,275 @@
+package com.arianewelke.checkFit.infra.stream;
+
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Feed SSE de ocupação das atividades. Check-ins só marcam a atividade como alterada; a cada
+// flush as atividades alteradas são lidas numa consulta só, o evento é serializado uma vez e o
+// mesmo evento vai para todos os inscritos. Cada conexão tem um buffer limitado: quem não
+// consome a tempo é desconectado e o cliente reconecta com um ticket novo.
+//
+// O send do SseEmitter é bloqueante: um cliente que parou de ler segura a thread de envio até o
+// write timeout do Tomcat. Passado send-timeout o inscrito sai do feed e o pool ganha uma thread no
+// lugar da presa (até max-stalled-senders), devolvida quando aquele envio finalmente retorna.
+@Component
+public class ActivityOccupancyStream {
+
+    static final String EVENT = "occupancy";
+
+    private final ActivityRepository activityRepository;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final int bufferSize;
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final ThreadPoolExecutor senders;
+    private final int senderThreads;
+    private final int maxStalledSenders;
+    private final long sendTimeoutNanos;
+    // envios que passaram de send-timeout e ainda não retornaram
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+    private final Counter dropped;
+
+    public ActivityOccupancyStream(ActivityRepository activityRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                   @Value("${api.activity.stream.timeout:30m}") Duration timeout,
+                                   @Value("${api.activity.stream.reconnect:3s}") Duration reconnect,
+                                   @Value("${api.activity.stream.buffer-size:16}") int bufferSize,
+                                   @Value("${api.activity.stream.sender-threads:2}") int senderThreads,
+                                   @Value("${api.activity.stream.send-timeout:5s}") Duration sendTimeout,
+                                   @Value("${api.activity.stream.max-stalled-senders:32}") int maxStalledSenders) {
+        this.activityRepository = activityRepository;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.reconnectMillis = reconnect.toMillis();
+        this.bufferSize = bufferSize;
+        this.senderThreads = Math.max(senderThreads, 1);
+        this.maxStalledSenders = Math.max(maxStalledSenders, 0);
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        var threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(this.senderThreads, this.senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            var thread = new Thread(runnable, "occupancy-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = Counter.builder("checkfit.activity.stream.dropped")
+                .description("SSE subscribers disconnected because their buffer was full or a send timed out")
+                .register(meterRegistry);
+        meterRegistry.gauge("checkfit.activity.stream.subscribers", subscribers, Set::size);
+        meterRegistry.gauge("checkfit.activity.stream.stalled.senders", stalledSenders, AtomicInteger::get);
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        var subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // o primeiro envio libera os cabeçalhos e diz ao EventSource quanto esperar para reconectar
+        try {
+            subscriber.emitter.send(SseEmitter.event().reconnectTime(reconnectMillis));
+        } catch (IOException e) {
+            disconnect(subscriber);
+        }
+        return subscriber.emitter;
+    }
+
+    // chamado depois do commit; várias mudanças na mesma atividade até o próximo flush viram um evento só
+    public void changed(Long activityId) {
+        changed.add(activityId);
+    }
+
+    @Scheduled(fixedDelayString = "${api.activity.stream.flush-ms:250}")
+    public void flush() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(changed);
+        changed.removeAll(ids);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<AvailabilityResponseDTO> availability = activityRepository.findAvailabilityByIdIn(ids);
+        if (!availability.isEmpty()) {
+            broadcast(SseEmitter.event().name(EVENT).data(toJson(availability), MediaType.APPLICATION_JSON).build());
+        }
+    }
+
+    // mantém a conexão viva através de proxies e descobre clientes que já foram embora
+    @Scheduled(fixedDelayString = "${api.activity.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    // inscritos com um envio parado há mais de send-timeout
+    @Scheduled(fixedDelayString = "${api.activity.stream.send-check-ms:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince.get();
+            if (since != 0 && now - since > sendTimeoutNanos && subscriber.stalled.compareAndSet(false, true)) {
+                dropped.increment();
+                disconnect(subscriber);
+                resizeSenders(stalledSenders.incrementAndGet());
+                // o envio pode ter retornado antes de stalled ser marcado; quem trocar o flag devolve a thread
+                if (subscriber.sendingSince.get() == 0 && subscriber.stalled.compareAndSet(true, false)) {
+                    resizeSenders(stalledSenders.decrementAndGet());
+                }
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // antes do desligamento gracioso do Tomcat, que senão esperaria as conexões abertas terminarem
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+            subscriber.closed.set(true);
+            // um envio travado seguraria o lock do emitter; esse sai quando o Tomcat fechar a conexão
+            if (subscriber.sendingSince.get() == 0) {
+                complete(subscriber);
+            }
+        }
+        senders.shutdownNow();
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(event)) {
+                dropped.increment();
+                disconnect(subscriber);
+                continue;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // pool desligado: nenhum envio em andamento, pode completar aqui
+                subscriber.draining.set(false);
+                subscribers.remove(subscriber);
+                complete(subscriber);
+            }
+        }
+    }
+
+    // No máximo uma thread escrevendo por conexão, e só ela completa o emitter: send e complete
+    // disputam o mesmo lock, e um complete vindo de fora esperaria o send travado.
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while (!subscriber.closed.get() && (event = subscriber.buffer.poll()) != null) {
+                send(subscriber, event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.closed.set(true);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.closed.get()) {
+            complete(subscriber);
+        } else if (!subscriber.buffer.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) throws IOException {
+        subscriber.sendingSince.set(System.nanoTime());
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingSince.set(0);
+            if (subscriber.stalled.compareAndSet(true, false)) {
+                resizeSenders(stalledSenders.decrementAndGet());
+            }
+        }
+    }
+
+    // tira do feed na hora; o emitter é completado pela thread de envio daquela conexão
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.buffer.clear();
+            subscriber.closed.set(true);
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void complete(Subscriber subscriber) {
+        if (subscriber.completed.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private synchronized void resizeSenders(int stalled) {
+        int size = senderThreads + Math.min(Math.max(stalled, 0), maxStalledSenders);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private String toJson(List<AvailabilityResponseDTO> availability) {
+        try {
+            return objectMapper.writeValueAsString(availability);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // sendingSince: nanoTime do início do envio em andamento, 0 sem envio; stalled: já contado em stalledSenders
+    private record Subscriber(SseEmitter emitter, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer,
+                              AtomicBoolean draining, AtomicBoolean closed, AtomicBoolean completed,
+                              AtomicLong sendingSince, AtomicBoolean stalled) {
+        Subscriber(SseEmitter emitter, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer) {
+            this(emitter, buffer, new AtomicBoolean(), new AtomicBoolean(), new AtomicBoolean(), new AtomicLong(), new AtomicBoolean());
+        }
+    }
+}
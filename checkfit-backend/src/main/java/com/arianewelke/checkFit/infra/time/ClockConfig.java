@@ -0,0 +1,18 @@
+package com.arianewelke.checkFit.infra.time;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+// toda leitura de "agora" passa por este Clock; simulações e testes registram um relógio próprio antes do contexto subir
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,130 @@
+package com.arianewelke.checkFit.infra.uniqueness;
+
+import com.arianewelke.checkFit.dto.UserKeysDTO;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+
+// Índice em memória de email, CPF e telefone já cadastrados. Quando ele responde "não existe"
+// o cadastro pula a consulta ao banco; "pode existir" cai no existsBy... de sempre. Quem garante
+// a unicidade continua sendo as constraints da tabela user.
+@Component
+public class UserUniquenessIndex {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long minimumCapacity;
+    private final double falsePositiveRate;
+
+    // current é null até a primeira carga terminar; nesse intervalo tudo "pode existir"
+    private volatile Filters current;
+    private volatile Filters building;
+
+    public UserUniquenessIndex(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                               @Value("${api.security.uniqueness.minimum-capacity:100000}") long minimumCapacity,
+                               @Value("${api.security.uniqueness.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return filters == null || filters.email.mightContain(normalizeEmail(email));
+    }
+
+    public boolean mightContainCpf(String cpf) {
+        Filters filters = current;
+        return filters == null || filters.cpf.mightContain(cpf);
+    }
+
+    public boolean mightContainPhone(String phone) {
+        Filters filters = current;
+        return filters == null || filters.phone.mightContain(phone);
+    }
+
+    // chamado depois que o usuário foi gravado
+    public void add(User user) {
+        // building é lido antes de current: se a carga terminar no meio, current já é o filtro novo
+        Filters next = building;
+        Filters filters = current;
+        if (next != null) {
+            next.add(user.getEmail(), user.getCpf(), user.getPhone());
+        }
+        if (filters != null && filters != next) {
+            filters.add(user.getEmail(), user.getCpf(), user.getPhone());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long users = userRepository.count();
+        var filters = new Filters(Math.max(minimumCapacity, users * 2), falsePositiveRate);
+        building = filters;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var keys = userRepository.streamKeys()) {
+                    keys.forEach(filters::add);
+                }
+            });
+            current = filters;
+        } finally {
+            building = null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.security.uniqueness.check-ms:3600000}")
+    public void rebuildIfSaturated() {
+        Filters filters = current;
+        if (filters != null && filters.email.isSaturated()) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    private static String normalizeEmail(String email) {
+        // a collation do MySQL compara email sem diferenciar maiúsculas
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filters {
+        private final BloomFilter email;
+        private final BloomFilter cpf;
+        private final BloomFilter phone;
+
+        Filters(long capacity, double falsePositiveRate) {
+            this.email = new BloomFilter(capacity, falsePositiveRate);
+            this.cpf = new BloomFilter(capacity, falsePositiveRate);
+            this.phone = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        void add(UserKeysDTO keys) {
+            add(keys.email(), keys.cpf(), keys.phone());
+        }
+
+        void add(String email, String cpf, String phone) {
+            if (email != null) {
+                this.email.add(normalizeEmail(email));
+            }
+            if (cpf != null) {
+                this.cpf.add(cpf);
+            }
+            if (phone != null) {
+                this.phone.add(phone);
+            }
+        }
+    }
+}
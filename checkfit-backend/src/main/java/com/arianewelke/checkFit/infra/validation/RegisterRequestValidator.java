@@ -0,0 +1,33 @@
+package com.arianewelke.checkFit.infra.validation;
+
+import com.arianewelke.checkFit.dto.RegisterRequestDTO;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+
+import java.util.regex.Pattern;
+
+// regras de formato do cadastro; os padrões são compilados uma vez em vez de a cada String.matches
+public final class RegisterRequestValidator {
+
+    private static final Pattern PHONE = Pattern.compile("^\\d{10,11}$");
+    private static final Pattern CPF = Pattern.compile("^\\d{11}$");
+    private static final Pattern PASSWORD = Pattern.compile("^(?=.*[A-Za-z])(?=.*\\d)[A-Za-z\\d]{8,}$");
+    private static final Pattern EMAIL = Pattern.compile("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+
+    private RegisterRequestValidator() {
+    }
+
+    public static void validate(RegisterRequestDTO body) {
+        if (!PHONE.matcher(body.phone()).matches()) {
+            throw new BusinessExceptions("Phone number must contain 10 or 11 digits");
+        }
+        if (!CPF.matcher(body.cpf()).matches()) {
+            throw new BusinessExceptions("CPF must contain exactly 11 digits");
+        }
+        if (!PASSWORD.matcher(body.password()).matches()) {
+            throw new BusinessExceptions("Password must have at least 8 characters, including letters and numbers");
+        }
+        if (!EMAIL.matcher(body.email()).matches()) {
+            throw new BusinessExceptions("Invalid email format");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.arianewelke.checkFit.infra.warmup;
+
+import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.cache.ActivityCache;
+import com.arianewelke.checkFit.infra.reservation.SlotReservationEngine;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.infra.security.AuthenticationCache;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Aquece os caminhos quentes antes de a aplicação receber tráfego. ApplicationRunners rodam antes do
+// ApplicationReadyEvent, que é o que coloca o readiness em ACCEPTING_TRAFFIC, então o probe só fica UP
+// depois daqui. Cada rodada gera e verifica um token, faz um check-in completo numa transação desfeita
+// no fim (usuário e atividade criados nela mesma) e busca a grade e a disponibilidade pelo HTTP local,
+// com filtros e serialização. Registra o tempo até a primeira rodada abaixo de fast-threshold.
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    // principal fictício usado só nas requisições locais; nunca existe no banco
+    private static final AuthenticatedUser WARMUP_PRINCIPAL = new AuthenticatedUser(-1L, "warmup@checkfit.invalid", "Warmup");
+
+    private final TokenService tokenService;
+    private final AuthenticationCache authenticationCache;
+    private final CheckinService checkinService;
+    private final UserRepository userRepository;
+    private final ActivityRepository activityRepository;
+    private final ActivityCache activityCache;
+    private final SlotReservationEngine reservationEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration fastThreshold;
+    private final Timer iterationTimer;
+    // segundos desde o início da JVM até a primeira rodada rápida; NaN até acontecer
+    private volatile double firstFastResponse = Double.NaN;
+
+    public StartupWarmup(TokenService tokenService, AuthenticationCache authenticationCache, CheckinService checkinService,
+                         UserRepository userRepository, ActivityRepository activityRepository, ActivityCache activityCache,
+                         SlotReservationEngine reservationEngine, PlatformTransactionManager transactionManager,
+                         Environment environment, Clock clock, MeterRegistry meterRegistry,
+                         @Value("${api.warmup.enabled:false}") boolean enabled,
+                         @Value("${api.warmup.iterations:30}") int iterations,
+                         @Value("${api.warmup.fast-threshold:25ms}") Duration fastThreshold) {
+        this.tokenService = tokenService;
+        this.authenticationCache = authenticationCache;
+        this.checkinService = checkinService;
+        this.userRepository = userRepository;
+        this.activityRepository = activityRepository;
+        this.activityCache = activityCache;
+        this.reservationEngine = reservationEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.environment = environment;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.fastThreshold = fastThreshold;
+        this.iterationTimer = Timer.builder("checkfit.warmup.iteration")
+                .description("Duration of each startup warmup round")
+                .register(meterRegistry);
+        TimeGauge.builder("checkfit.warmup.first.fast.response", this, TimeUnit.SECONDS, warmup -> warmup.firstFastResponse)
+                .description("Time from JVM start until a warmup round ran under the fast threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations < 1) {
+            return;
+        }
+        var user = new User(WARMUP_PRINCIPAL.name(), WARMUP_PRINCIPAL.email(), null, null, LocalDate.of(2000, 1, 1), null, LocalDateTime.now(clock));
+        var token = tokenService.generateToken(user);
+        authenticationCache.put(token, WARMUP_PRINCIPAL, tokenService.verify(token).getExpiresAtAsInstant());
+        var http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        var port = environment.getProperty("local.server.port", Integer.class);
+
+        long first = 0;
+        long last = 0;
+        int fastAt = -1;
+        try {
+            for (int i = 1; i <= iterations; i++) {
+                long started = System.nanoTime();
+                round(token, http, port);
+                last = System.nanoTime() - started;
+                iterationTimer.record(last, TimeUnit.NANOSECONDS);
+                if (i == 1) {
+                    first = last;
+                }
+                if (fastAt < 0 && last <= fastThreshold.toNanos()) {
+                    fastAt = i;
+                    firstFastResponse = ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+                }
+            }
+        } catch (RuntimeException | IOException e) {
+            // aquecimento é otimização: uma falha aqui não pode impedir a subida
+            log.warn("Startup warmup stopped early", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            authenticationCache.invalidateUser(WARMUP_PRINCIPAL.id());
+        }
+        log.info("Startup warmup: {} rounds, first {} ms, last {} ms", iterations, first / 1_000_000, last / 1_000_000);
+        if (fastAt > 0) {
+            log.info("First round under {} ms: round {}, {} s after JVM start", fastThreshold.toMillis(), fastAt, firstFastResponse);
+        } else {
+            log.warn("No warmup round ran under {} ms", fastThreshold.toMillis());
+        }
+    }
+
+    private void round(String token, HttpClient http, Integer port) throws IOException, InterruptedException {
+        tokenService.verify(token);
+        checkinRolledBack();
+        if (port != null) {
+            get(http, port, token, "/activity");
+            get(http, port, token, "/activity/availability");
+        }
+    }
+
+    private void checkinRolledBack() {
+        var activityId = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            var suffix = UUID.randomUUID().toString();
+            var user = userRepository.save(new User("Warmup", "warmup-" + suffix + "@checkfit.invalid", "warmup-" + suffix,
+                    "warmup-" + suffix, LocalDate.of(2000, 1, 1), "-", LocalDateTime.now(clock)));
+            var now = LocalDateTime.now(clock);
+            var activity = new Activity(now, now.plusHours(1), "Warmup", 1);
+            activity.setUpdatedAt(now);
+            activityRepository.save(activity);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, List.of()));
+            try {
+                checkinService.save(new CheckinRequestDTO(activity.getId()), true);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+            return activity.getId();
+        });
+        // a atividade não existe mais; tira o que ficou em memória sobre ela
+        activityCache.evict(activityId);
+        reservationEngine.evict(activityId);
+    }
+
+    private static void get(HttpClient http, int port, String token, String path) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,78 @@
+package com.arianewelke.checkFit.infra.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Com threads virtuais o Tomcat aceita qualquer quantidade de requests ao mesmo tempo. Este filtro
+// limita quantas ficam em processamento (e portanto disputando o pool do Hikari); o excedente espera
+// um pouco e, se não houver vaga, recebe 503. Com limite 0 ele não faz nada (modo padrão).
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final Counter rejections;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${api.http.max-concurrent-requests:0}") int maxConcurrentRequests,
+                                  @Value("${api.http.max-concurrent-wait:1s}") Duration maxWait) {
+        this.permits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests) : null;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.rejections = Counter.builder("checkfit.http.concurrency.rejections")
+                .description("Requests refused because the concurrency limit was reached")
+                .register(meterRegistry);
+        if (permits != null) {
+            Gauge.builder("checkfit.http.concurrency.in.flight", permits, p -> maxConcurrentRequests - p.availablePermits())
+                    .description("Requests currently holding a concurrency permit")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (permits == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejections.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy, please try again\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
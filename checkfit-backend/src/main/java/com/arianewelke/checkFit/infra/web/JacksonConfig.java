@@ -0,0 +1,17 @@
+package com.arianewelke.checkFit.infra.web;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// O Spring Boot registra no ObjectMapper todo Module declarado como bean. O Blackbird troca o acesso
+// por reflection aos getters/campos dos DTOs por lambdas geradas em tempo de execução.
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
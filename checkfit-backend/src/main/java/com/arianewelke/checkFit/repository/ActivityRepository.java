@@ -1,7 +1,91 @@
 package com.arianewelke.checkFit.repository;
 
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.ActivityVersionDTO;
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
 import com.arianewelke.checkFit.entity.Activity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
+
+    // ocupa uma vaga só se a atividade não terminou e ainda não está lotada
+    @Transactional
+    @Modifying
+    @Query("update Activity a set a.occupiedSlots = a.occupiedSlots + 1, a.updatedAt = :now " +
+            "where a.id = :id and a.occupiedSlots < a.limitPeople and a.finishTime >= :now")
+    int reserveSlot(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update Activity a set a.occupiedSlots = a.occupiedSlots - 1, a.updatedAt = :now where a.id = :id and a.occupiedSlots > 0")
+    int releaseSlot(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("select new com.arianewelke.checkFit.dto.ActivityResponseDTO(a.id, a.description, a.startTime, a.finishTime, a.limitPeople, a.version) " +
+            "from Activity a where a.id = :id")
+    Optional<ActivityResponseDTO> findScheduleById(@Param("id") Long id);
+
+    // carga do índice em memória: só as atividades que ainda não terminaram
+    @Query("select new com.arianewelke.checkFit.dto.ActivityResponseDTO(a.id, a.description, a.startTime, a.finishTime, a.limitPeople, a.version) " +
+            "from Activity a where a.finishTime >= :now order by a.startTime, a.id")
+    List<ActivityResponseDTO> findScheduleNotFinishedAt(@Param("now") LocalDateTime now);
+
+    // grade por janela de início, paginada por cursor (startTime, id) sobre o índice idx_activity_start_time
+    @Query("select new com.arianewelke.checkFit.dto.ActivityResponseDTO(a.id, a.description, a.startTime, a.finishTime, a.limitPeople, a.version) " +
+            "from Activity a where a.startTime >= :from and (:to is null or a.startTime < :to) " +
+            "order by a.startTime, a.id")
+    List<ActivityResponseDTO> findScheduleBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    @Query("select new com.arianewelke.checkFit.dto.ActivityResponseDTO(a.id, a.description, a.startTime, a.finishTime, a.limitPeople, a.version) " +
+            "from Activity a where (a.startTime > :startTime or (a.startTime = :startTime and a.id > :id)) " +
+            "and (:to is null or a.startTime < :to) order by a.startTime, a.id")
+    List<ActivityResponseDTO> findScheduleAfter(@Param("startTime") LocalDateTime startTime, @Param("id") Long id,
+                                                @Param("to") LocalDateTime to, Limit limit);
+
+    @Query("select new com.arianewelke.checkFit.dto.AvailabilityResponseDTO(a.id, a.description, a.limitPeople, a.occupiedSlots) " +
+            "from Activity a where a.id = :id")
+    Optional<AvailabilityResponseDTO> findAvailabilityById(@Param("id") Long id);
+
+    @Query("select new com.arianewelke.checkFit.dto.AvailabilityResponseDTO(a.id, a.description, a.limitPeople, a.occupiedSlots) " +
+            "from Activity a where a.id in :ids order by a.startTime")
+    List<AvailabilityResponseDTO> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.arianewelke.checkFit.dto.AvailabilityResponseDTO(a.id, a.description, a.limitPeople, a.occupiedSlots) " +
+            "from Activity a where a.startTime >= :from and a.startTime <= :to order by a.startTime")
+    List<AvailabilityResponseDTO> findAvailabilityBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Versão das linhas de uma janela (ou de uma lista de ids) para o ETag da grade e da disponibilidade,
+    // pelo mesmo índice da consulta que ela evita: muda com insert/delete (count, sum(id)), edição
+    // (sum(version)), vagas (sum(occupiedSlots)) e qualquer update (max(updatedAt)).
+    @Query("select new com.arianewelke.checkFit.dto.ActivityVersionDTO(count(a), max(a.updatedAt), " +
+            "coalesce(sum(a.occupiedSlots), 0), coalesce(sum(a.version), 0), coalesce(sum(a.id), 0)) " +
+            "from Activity a where a.startTime >= :from and (:to is null or a.startTime <= :to)")
+    ActivityVersionDTO findVersionFrom(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.arianewelke.checkFit.dto.ActivityVersionDTO(count(a), max(a.updatedAt), " +
+            "coalesce(sum(a.occupiedSlots), 0), coalesce(sum(a.version), 0), coalesce(sum(a.id), 0)) " +
+            "from Activity a where a.id in :ids")
+    ActivityVersionDTO findVersionByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select a.occupiedSlots from Activity a where a.id = :id")
+    Optional<Integer> findOccupiedSlotsById(@Param("id") Long id);
+
+    @Query("select a.id from Activity a where a.finishTime >= :from")
+    List<Long> findIdsFinishingFrom(@Param("from") LocalDateTime from);
+
+    // recalcula a coluna desnormalizada a partir dos check-ins; o arquivo só guarda check-ins de
+    // atividades que terminaram antes de hoje, então não entra na conta das que ainda vão acontecer
+    @Transactional
+    @Modifying
+    @Query("update Activity a set a.occupiedSlots = (select count(c) from Checkin c where c.activity = a) where a.id in :ids")
+    int syncOccupiedSlots(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,30 @@
+package com.arianewelke.checkFit.repository;
+
+import com.arianewelke.checkFit.dto.AttendanceRowDTO;
+import com.arianewelke.checkFit.entity.ArchivedCheckin;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedCheckinRepository extends JpaRepository<ArchivedCheckin, Long> {
+
+    // copia as linhas direto no banco (insert ... select), sem carregar as entidades
+    @Modifying
+    @Query("insert into ArchivedCheckin (id, user, activity, checkinTime, checkinDate) " +
+            "select c.id, c.user, c.activity, c.checkinTime, c.checkinDate from Checkin c where c.id in :ids")
+    int copyFromCheckin(@Param("ids") List<Long> ids);
+
+    @Query("select new com.arianewelke.checkFit.dto.AttendanceRowDTO(c.user.id, a.id, a.startTime, count(c)) " +
+            "from ArchivedCheckin c join c.activity a where c.id between :fromId and :toId group by c.user.id, a.id, a.startTime")
+    List<AttendanceRowDTO> countAttendanceBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("select min(c.id) from ArchivedCheckin c")
+    Optional<Long> findMinId();
+
+    @Query("select max(c.id) from ArchivedCheckin c")
+    Optional<Long> findMaxId();
+}
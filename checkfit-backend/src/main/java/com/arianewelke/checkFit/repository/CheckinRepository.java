@@ -1,22 +1,96 @@
 package com.arianewelke.checkFit.repository;
 
-import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.dto.AttendanceRowDTO;
+import com.arianewelke.checkFit.dto.CheckinDetailsDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryRowDTO;
 import com.arianewelke.checkFit.entity.Checkin;
-import com.arianewelke.checkFit.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CheckinRepository extends JpaRepository<Checkin, Long> {
 
-    long countByActivityId(Long activityId);
+    String EXPORT_FILTER = "where (:from is null or c.checkinTime >= :from) and (:to is null or c.checkinTime < :to) " +
+            "and (:activityId is null or a.id = :activityId) ";
+    String HISTORY_CURSOR = "and (c.checkinTime < :checkinTime or (c.checkinTime = :checkinTime and c.id < :id)) ";
 
-    boolean existsByUserAndActivity(User user, Activity activity);
+    // Leituras projetadas direto nos DTOs: um único select, sem carregar User/Activity.
+    // Os check-ins arquivados (checkin_archive) entram por union all na mesma consulta.
+    @Query("select new com.arianewelke.checkFit.dto.CheckinDetailsDTO(x.id, x.userId, x.userName, x.activityId, x.activityDescription, x.checkinTime) from (" +
+            "select c.id as id, u.id as userId, u.name as userName, a.id as activityId, a.description as activityDescription, c.checkinTime as checkinTime " + "from Checkin c join c.user u join c.activity a " +
+            "union all " + "select c.id as id, u.id as userId, u.name as userName, a.id as activityId, a.description as activityDescription, c.checkinTime as checkinTime " + "from ArchivedCheckin c join c.user u join c.activity a" +
+            ") x order by x.id")
+    List<CheckinDetailsDTO> findAllDetails();
 
-    boolean existsByUserAndCheckinTimeBetween(User user, LocalDateTime start, LocalDateTime end);
+    @Query("select new com.arianewelke.checkFit.dto.CheckinDetailsDTO(x.id, x.userId, x.userName, x.activityId, x.activityDescription, x.checkinTime) from (" +
+            "select c.id as id, u.id as userId, u.name as userName, a.id as activityId, a.description as activityDescription, c.checkinTime as checkinTime " + "from Checkin c join c.user u join c.activity a where c.id = :id " +
+            "union all " + "select c.id as id, u.id as userId, u.name as userName, a.id as activityId, a.description as activityDescription, c.checkinTime as checkinTime " + "from ArchivedCheckin c join c.user u join c.activity a where c.id = :id" +
+            ") x")
+    Optional<CheckinDetailsDTO> findDetailsById(@Param("id") Long id);
 
-    List<Checkin>  findByUserOrderByCheckinTimeDesc(User user);
+    // exportação: lido em blocos pelo cursor do JDBC, precisa de uma transação aberta
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.arianewelke.checkFit.dto.CheckinDetailsDTO(x.id, x.userId, x.userName, x.activityId, x.activityDescription, x.checkinTime) from (" +
+            "select c.id as id, u.id as userId, u.name as userName, a.id as activityId, a.description as activityDescription, c.checkinTime as checkinTime " + "from Checkin c join c.user u join c.activity a " + EXPORT_FILTER +
+            "union all " + "select c.id as id, u.id as userId, u.name as userName, a.id as activityId, a.description as activityDescription, c.checkinTime as checkinTime " + "from ArchivedCheckin c join c.user u join c.activity a " + EXPORT_FILTER +
+            ") x order by x.id")
+    Stream<CheckinDetailsDTO> streamDetails(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                            @Param("activityId") Long activityId);
+
+    // histórico paginado por cursor (checkinTime, id); cada lado usa o índice (userId, checkinTime) da sua tabela
+    @Query("select new com.arianewelke.checkFit.dto.CheckinHistoryRowDTO(x.id, x.name, x.description, x.checkinTime) from (" +
+            "select c.id as id, u.name as name, a.description as description, c.checkinTime as checkinTime " + "from Checkin c join c.user u join c.activity a where u.id = :userId " +
+            "union all " + "select c.id as id, u.name as name, a.description as description, c.checkinTime as checkinTime " + "from ArchivedCheckin c join c.user u join c.activity a where u.id = :userId" +
+            ") x order by x.checkinTime desc, x.id desc")
+    List<CheckinHistoryRowDTO> findHistory(@Param("userId") Long userId, Limit limit);
+
+    @Query("select new com.arianewelke.checkFit.dto.CheckinHistoryRowDTO(x.id, x.name, x.description, x.checkinTime) from (" +
+            "select c.id as id, u.name as name, a.description as description, c.checkinTime as checkinTime " + "from Checkin c join c.user u join c.activity a where u.id = :userId " + HISTORY_CURSOR +
+            "union all " + "select c.id as id, u.name as name, a.description as description, c.checkinTime as checkinTime " + "from ArchivedCheckin c join c.user u join c.activity a where u.id = :userId " + HISTORY_CURSOR +
+            ") x order by x.checkinTime desc, x.id desc")
+    List<CheckinHistoryRowDTO> findHistoryBefore(@Param("userId") Long userId, @Param("checkinTime") LocalDateTime checkinTime,
+                                                 @Param("id") Long id, Limit limit);
+
+    // rebuild dos contadores de frequência: um intervalo de ids por consulta
+    @Query("select new com.arianewelke.checkFit.dto.AttendanceRowDTO(c.user.id, a.id, a.startTime, count(c)) " +
+            "from Checkin c join c.activity a where c.id between :fromId and :toId group by c.user.id, a.id, a.startTime")
+    List<AttendanceRowDTO> countAttendanceBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("select min(c.id) from Checkin c")
+    Optional<Long> findMinId();
+
+    @Query("select max(c.id) from Checkin c")
+    Optional<Long> findMaxId();
+
+    // candidatos ao arquivo, em ordem de id para os lotes avançarem sempre
+    @Query("select c.id from Checkin c where c.activity.finishTime < :cutoff order by c.id")
+    List<Long> findIdsOfActivitiesFinishedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from Checkin c where c.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    // o usuário já tem check-in nesta atividade ou neste dia (as duas constraints de unicidade)
+    @Query("select count(c) > 0 from Checkin c where c.user.id = :userId and (c.activity.id = :activityId or c.checkinDate = :day)")
+    boolean existsForActivityOrDay(@Param("userId") Long userId, @Param("activityId") Long activityId, @Param("day") LocalDate day);
+
+    // atividades dos check-ins que batem com uma das duas constraints; no máximo duas linhas
+    @Query("select c.activity.id from Checkin c where c.user.id = :userId and (c.activity.id = :activityId or c.checkinDate = :day)")
+    List<Long> findActivityOrDayConflicts(@Param("userId") Long userId, @Param("activityId") Long activityId, @Param("day") LocalDate day);
 
-    List<Checkin> findByUser(User user);
 }
@@ -0,0 +1,48 @@
+package com.arianewelke.checkFit.repository;
+
+import com.arianewelke.checkFit.entity.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Primeiro da fila pelo índice (activityId, id). A leitura é com lock: ela enxerga o que outra
+    // promoção acabou de commitar, e não a fotografia do início da transação (REPEATABLE READ).
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WaitlistEntry w where w.activity.id = :activityId order by w.id")
+    List<WaitlistEntry> findHead(@Param("activityId") Long activityId, Limit limit);
+
+    // posição na fila numa consulta só; 0 quando o usuário não está na fila
+    @Query("select count(w) from WaitlistEntry w where w.activity.id = :activityId and w.id <= " +
+            "(select m.id from WaitlistEntry m where m.activity.id = :activityId and m.user.id = :userId)")
+    long findPosition(@Param("activityId") Long activityId, @Param("userId") Long userId);
+
+    // retorna 0 quando outra transação já tirou a entrada da fila
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.id = :id")
+    int removeEntry(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.activity.id = :activityId and w.user.id = :userId")
+    int removeUser(@Param("activityId") Long activityId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.activity.id = :activityId")
+    int deleteByActivity(@Param("activityId") Long activityId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.user.id = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+}
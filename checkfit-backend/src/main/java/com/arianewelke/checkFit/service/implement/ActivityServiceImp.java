@@ -1,13 +1,34 @@
 package com.arianewelke.checkFit.service.implement;
 
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.ActivitySchedulePageDTO;
+import com.arianewelke.checkFit.dto.ActivityVersionDTO;
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.dto.RecurringActivityRequestDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleRequestDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleResponseDTO;
 import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.cache.ActivityCache;
+import com.arianewelke.checkFit.infra.reservation.SlotReservationEngine;
+import com.arianewelke.checkFit.infra.schedule.ActivityIntervalIndex;
 import com.arianewelke.checkFit.repository.ActivityRepository;
 import com.arianewelke.checkFit.repository.CheckinRepository;
 import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.repository.WaitlistRepository;
 import com.arianewelke.checkFit.service.interfaces.ActivityService;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,40 +36,213 @@ import java.util.Optional;
 public class ActivityServiceImp implements ActivityService {
 
     private final ActivityRepository activityRepository;
+    private final SlotReservationEngine reservationEngine;
+    private final ActivityCache activityCache;
+    private final WaitlistRepository waitlistRepository;
+    private final ActivityIntervalIndex intervalIndex;
+    private final Clock clock;
 
-    public ActivityServiceImp(ActivityRepository activityRepository, UserRepository userRepository, CheckinRepository checkinRepository) {
+    private static final int MAX_SCHEDULE_PAGE_SIZE = 100;
+    private static final int MAX_RECURRING_DAYS = 366;
+    private static final int MAX_AVAILABILITY_DAYS = 31;
+
+    public ActivityServiceImp(ActivityRepository activityRepository, UserRepository userRepository, CheckinRepository checkinRepository,
+                              SlotReservationEngine reservationEngine, ActivityCache activityCache,
+                              WaitlistRepository waitlistRepository, ActivityIntervalIndex intervalIndex, Clock clock) {
         this.activityRepository = activityRepository;
+        this.reservationEngine = reservationEngine;
+        this.activityCache = activityCache;
+        this.waitlistRepository = waitlistRepository;
+        this.intervalIndex = intervalIndex;
+        this.clock = clock;
     }
 
     @Override
+    @Transactional
     public Activity save(Activity activity) {
-        return activityRepository.save(activity);
+        activity.setUpdatedAt(LocalDateTime.now(clock));
+        var saved = activityRepository.save(activity);
+        activityCache.evict(saved.getId());
+        intervalIndex.changed(ActivityResponseDTO.from(saved));
+        return saved;
+    }
+
+    // Expande as aulas recorrentes em atividades concretas e grava tudo numa transação.
+    // Com a sequência de Activity e hibernate.jdbc.batch_size, os inserts vão ao banco em lotes.
+    @Override
+    @Transactional
+    public RecurringScheduleResponseDTO createRecurring(RecurringScheduleRequestDTO schedule) {
+        var activities = expand(schedule);
+        var now = LocalDateTime.now(clock);
+        activities.forEach(activity -> activity.setUpdatedAt(now));
+        var saved = activityRepository.saveAll(activities);
+        intervalIndex.changed(saved.stream().map(ActivityResponseDTO::from).toList());
+        return new RecurringScheduleResponseDTO(saved.size(),
+                saved.isEmpty() ? null : saved.get(0).getStartTime(),
+                saved.isEmpty() ? null : saved.get(saved.size() - 1).getStartTime());
+    }
+
+    private List<Activity> expand(RecurringScheduleRequestDTO schedule) {
+        if (schedule.startDate() == null || schedule.endDate() == null || schedule.endDate().isBefore(schedule.startDate())) {
+            throw new BusinessExceptions("endDate must not be before startDate");
+        }
+        if (ChronoUnit.DAYS.between(schedule.startDate(), schedule.endDate()) >= MAX_RECURRING_DAYS) {
+            throw new BusinessExceptions("A recurring schedule can span at most " + MAX_RECURRING_DAYS + " days");
+        }
+        if (schedule.activities() == null || schedule.activities().isEmpty()) {
+            throw new BusinessExceptions("At least one recurring activity is required");
+        }
+        schedule.activities().forEach(ActivityServiceImp::validate);
+
+        var templates = schedule.activities().stream()
+                .sorted(Comparator.comparing(RecurringActivityRequestDTO::startTime))
+                .toList();
+        var activities = new ArrayList<Activity>();
+        for (LocalDate day = schedule.startDate(); !day.isAfter(schedule.endDate()); day = day.plusDays(1)) {
+            for (RecurringActivityRequestDTO template : templates) {
+                if (template.daysOfWeek().contains(day.getDayOfWeek())) {
+                    activities.add(new Activity(day.atTime(template.startTime()), day.atTime(template.finishTime()),
+                            template.description(), template.limitPeople()));
+                }
+            }
+        }
+        return activities;
     }
 
+    private static void validate(RecurringActivityRequestDTO template) {
+        if (template.description() == null || template.description().isBlank()) {
+            throw new BusinessExceptions("description is empty");
+        }
+        if (template.daysOfWeek() == null || template.daysOfWeek().isEmpty()) {
+            throw new BusinessExceptions("daysOfWeek is empty");
+        }
+        if (template.startTime() == null || template.finishTime() == null || !template.finishTime().isAfter(template.startTime())) {
+            throw new BusinessExceptions("finishTime must be after startTime");
+        }
+        if (template.limitPeople() < 1) {
+            throw new BusinessExceptions("limitPeople must be greater than 0");
+        }
+    }
+
+    // só o que ainda não terminou: aulas antigas ficam em findSchedule
     @Override
-    public List<Activity> findAll() {
-        return activityRepository.findAll();
+    public List<ActivityResponseDTO> findAll() {
+        return intervalIndex.notFinished();
     }
 
     @Override
-    public Optional<Activity> findById(Long id) {
-        return activityRepository.findById(id);
+    public List<ActivityResponseDTO> findOpenNow() {
+        return intervalIndex.openNow();
     }
 
     @Override
+    public ActivitySchedulePageDTO findSchedule(LocalDateTime from, LocalDateTime to, LocalDateTime afterStartTime, Long afterId, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SCHEDULE_PAGE_SIZE);
+        // busca um a mais para saber se existe próxima página
+        var limit = Limit.of(pageSize + 1);
+        var rows = afterStartTime == null || afterId == null
+                ? activityRepository.findScheduleBetween(from != null ? from : LocalDateTime.now(clock), to, limit)
+                : activityRepository.findScheduleAfter(afterStartTime, afterId, to, limit);
+
+        if (rows.size() <= pageSize) {
+            return new ActivitySchedulePageDTO(rows, null, null);
+        }
+        var page = rows.subList(0, pageSize);
+        var last = page.get(page.size() - 1);
+        return new ActivitySchedulePageDTO(List.copyOf(page), last.startTime(), last.id());
+    }
+
+    @Override
+    public Optional<ActivityResponseDTO> findById(Long id) {
+        return activityCache.findById(id, activityRepository::findScheduleById);
+    }
+
+    @Override
+    @Transactional
     public Activity update(Long id, Activity activity) {
         Activity oldActivity = activityRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Activity not found with id: " + id));
+        // versão informada pelo cliente (If-Match): se outra edição passou na frente, não sobrescreve
+        if (activity.getVersion() != null && !activity.getVersion().equals(oldActivity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Activity.class, id);
+        }
         oldActivity.setDescription(activity.getDescription());
         oldActivity.setStartTime(activity.getStartTime());
         oldActivity.setFinishTime(activity.getFinishTime());
         oldActivity.setLimitPeople(activity.getLimitPeople());
-        return activityRepository.save(oldActivity);
+        oldActivity.setUpdatedAt(LocalDateTime.now(clock));
+        // flush para a resposta (e o índice) já levarem a versão nova
+        var updated = activityRepository.saveAndFlush(oldActivity);
+        activityCache.evict(id);
+        intervalIndex.changed(ActivityResponseDTO.from(updated));
+        return updated;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
+        waitlistRepository.deleteByActivity(id);
         activityRepository.deleteById(id);
+        reservationEngine.evict(id);
+        activityCache.evict(id);
+        intervalIndex.removed(id);
+    }
+
+    @Override
+    public Optional<AvailabilityResponseDTO> findAvailability(Long id) {
+        return activityRepository.findAvailabilityById(id);
+    }
+
+    @Override
+    public List<AvailabilityResponseDTO> findAvailability(List<Long> ids, LocalDateTime from, LocalDateTime to) {
+        if (ids != null && !ids.isEmpty()) {
+            return activityRepository.findAvailabilityByIdIn(ids);
+        }
+        var start = availabilityFrom(from);
+        return activityRepository.findAvailabilityBetween(start, availabilityTo(start, to));
+    }
+
+    // cobre as linhas que findSchedule pode devolver (o início do cursor ou from, padrão agora, até to)
+    @Override
+    public ActivityVersionDTO findScheduleVersion(LocalDateTime from, LocalDateTime to, LocalDateTime afterStartTime, Long afterId) {
+        var start = afterStartTime != null && afterId != null ? afterStartTime : from != null ? from : LocalDateTime.now(clock);
+        return activityRepository.findVersionFrom(start, to);
+    }
+
+    @Override
+    public ActivityVersionDTO findAvailabilityVersion(List<Long> ids, LocalDateTime from, LocalDateTime to) {
+        if (ids != null && !ids.isEmpty()) {
+            return activityRepository.findVersionByIdIn(ids);
+        }
+        var start = availabilityFrom(from);
+        return activityRepository.findVersionFrom(start, availabilityTo(start, to));
+    }
+
+    // sem ids a disponibilidade é sempre de uma janela limitada: de agora, se não vier from,
+    // até MAX_AVAILABILITY_DAYS depois, se não vier to
+    private LocalDateTime availabilityFrom(LocalDateTime from) {
+        return from != null ? from : LocalDateTime.now(clock);
+    }
+
+    private LocalDateTime availabilityTo(LocalDateTime from, LocalDateTime to) {
+        var limit = from.plusDays(MAX_AVAILABILITY_DAYS);
+        if (to == null) {
+            return limit;
+        }
+        if (to.isAfter(limit)) {
+            throw new BusinessExceptions("The availability window can span at most " + MAX_AVAILABILITY_DAYS + " days");
+        }
+        return to;
+    }
+
+    @Override
+    public String notFinishedETag() {
+        return intervalIndex.etag();
+    }
+
+    @Override
+    public String openNowETag() {
+        return intervalIndex.openNowEtag();
     }
 
 }
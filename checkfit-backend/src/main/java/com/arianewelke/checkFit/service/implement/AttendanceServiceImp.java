@@ -0,0 +1,77 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.AttendanceDTO;
+import com.arianewelke.checkFit.entity.AttendanceDimension;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.analytics.AttendanceCounters;
+import com.arianewelke.checkFit.infra.analytics.AttendanceRebuilder;
+import com.arianewelke.checkFit.service.interfaces.AttendanceService;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+// as consultas leem os contadores em memória: o custo depende do número de buckets pedidos, não de check-ins
+@Service
+public class AttendanceServiceImp implements AttendanceService {
+
+    private static final int MAX_MONTHS = 120;
+
+    private final AttendanceCounters counters;
+    private final AttendanceRebuilder rebuilder;
+
+    public AttendanceServiceImp(AttendanceCounters counters, AttendanceRebuilder rebuilder) {
+        this.counters = counters;
+        this.rebuilder = rebuilder;
+    }
+
+    @Override
+    public AttendanceDTO byActivity(Long activityId) {
+        return count(AttendanceDimension.ACTIVITY, String.valueOf(activityId));
+    }
+
+    @Override
+    public AttendanceDTO byMember(Long userId) {
+        return count(AttendanceDimension.MEMBER, String.valueOf(userId));
+    }
+
+    @Override
+    public List<AttendanceDTO> byWeekday() {
+        var result = new ArrayList<AttendanceDTO>(DayOfWeek.values().length);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            result.add(count(AttendanceDimension.WEEKDAY, day.name()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<AttendanceDTO> byMonth(YearMonth from, YearMonth to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BusinessExceptions("to must not be before from");
+        }
+        if (from.plusMonths(MAX_MONTHS).isBefore(to)) {
+            throw new BusinessExceptions("A month range can span at most " + MAX_MONTHS + " months");
+        }
+        var result = new ArrayList<AttendanceDTO>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            result.add(count(AttendanceDimension.MONTH, month.toString()));
+        }
+        return result;
+    }
+
+    @Override
+    public void rebuild() {
+        rebuilder.rebuild();
+    }
+
+    @Override
+    public boolean rebuildInBackground() {
+        return rebuilder.rebuildInBackground();
+    }
+
+    private AttendanceDTO count(AttendanceDimension dimension, String bucket) {
+        return new AttendanceDTO(bucket, counters.count(dimension, bucket));
+    }
+}
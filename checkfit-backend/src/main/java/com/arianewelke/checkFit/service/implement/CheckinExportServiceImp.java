@@ -0,0 +1,97 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.CheckinDetailsDTO;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.service.interfaces.CheckinExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// escreve as linhas direto no output stream conforme o cursor avança, sem montar a lista em memória
+@Service
+public class CheckinExportServiceImp implements CheckinExportService {
+
+    private static final String CSV_HEADER = "id,userId,userName,activityId,activityDescription,checkinTime";
+
+    private final CheckinRepository checkinRepository;
+    private final ObjectMapper objectMapper;
+
+    public CheckinExportServiceImp(CheckinRepository checkinRepository, ObjectMapper objectMapper) {
+        this.checkinRepository = checkinRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Format format, LocalDateTime from, LocalDateTime to, Long activityId, OutputStream out) throws IOException {
+        try (Stream<CheckinDetailsDTO> rows = checkinRepository.streamDetails(from, to, activityId)) {
+            var iterator = rows.iterator();
+            if (format == Format.CSV) {
+                writeCsv(iterator, out);
+            } else {
+                writeNdjson(iterator, out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<CheckinDetailsDTO> rows, OutputStream out) throws IOException {
+        boolean written = false;
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                written = true;
+            }
+        }
+        if (written) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private void writeCsv(Iterator<CheckinDetailsDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            var row = rows.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(String.valueOf(row.userId()));
+            writer.write(',');
+            writer.write(csv(row.userName()));
+            writer.write(',');
+            writer.write(String.valueOf(row.activityId()));
+            writer.write(',');
+            writer.write(csv(row.activityDescription()));
+            writer.write(',');
+            writer.write(row.checkinTime() == null ? "" : row.checkinTime().toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
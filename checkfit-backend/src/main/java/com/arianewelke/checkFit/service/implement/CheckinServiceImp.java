@@ -1,19 +1,38 @@
 package com.arianewelke.checkFit.service.implement;
 
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.CheckinDetailsDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryPageDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryRowDTO;
 import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.dto.CheckinUpdateDTO;
 import com.arianewelke.checkFit.dto.CheckinResponseDTO;
 import com.arianewelke.checkFit.dto.CheckinWithHistoryDTO;
 import com.arianewelke.checkFit.entity.Checkin;
 import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.analytics.AttendanceCounters;
+import com.arianewelke.checkFit.infra.cache.ActivityCache;
+import com.arianewelke.checkFit.infra.metrics.CheckinMetrics;
+import com.arianewelke.checkFit.infra.reservation.SlotReservationEngine;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.infra.stream.ActivityOccupancyStream;
 import com.arianewelke.checkFit.repository.ActivityRepository;
 import com.arianewelke.checkFit.repository.CheckinRepository;
 import com.arianewelke.checkFit.repository.UserRepository;
 import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import com.arianewelke.checkFit.service.interfaces.WaitlistService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,103 +43,197 @@ public class CheckinServiceImp implements CheckinService {
     private final CheckinRepository checkinRepository;
     private final UserRepository userRepository;
     private final ActivityRepository activityRepository;
-
-    public CheckinServiceImp(CheckinRepository checkinRepository, UserRepository userRepository, ActivityRepository activityRepository) {
+    private final SlotReservationEngine reservationEngine;
+    private final Clock clock;
+    private final CheckinMetrics checkinMetrics;
+    private final ActivityCache activityCache;
+    private final ActivityOccupancyStream occupancyStream;
+    private final WaitlistService waitlistService;
+    private final AttendanceCounters attendanceCounters;
+    private final int recentHistorySize;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    public CheckinServiceImp(CheckinRepository checkinRepository, UserRepository userRepository, ActivityRepository activityRepository,
+                             SlotReservationEngine reservationEngine, Clock clock, CheckinMetrics checkinMetrics,
+                             ActivityCache activityCache, ActivityOccupancyStream occupancyStream,
+                             WaitlistService waitlistService, AttendanceCounters attendanceCounters,
+                             @Value("${api.checkin.history.recent-size:10}") int recentHistorySize) {
         this.checkinRepository = checkinRepository;
         this.userRepository = userRepository;
         this.activityRepository = activityRepository;
+        this.reservationEngine = reservationEngine;
+        this.clock = clock;
+        this.checkinMetrics = checkinMetrics;
+        this.activityCache = activityCache;
+        this.occupancyStream = occupancyStream;
+        this.waitlistService = waitlistService;
+        this.attendanceCounters = attendanceCounters;
+        this.recentHistorySize = recentHistorySize;
     }
 
     @Override
-    public CheckinWithHistoryDTO save(CheckinRequestDTO dto) {
-        var activityOptional = activityRepository.findById(dto.idActivity());
-        var userOptional = userRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName());
+    @Transactional
+    public CheckinWithHistoryDTO save(CheckinRequestDTO dto, boolean includeHistory) {
+        // horário e limite vêm do cache; a vaga em si é conferida no banco pelo reserveSlot
+        var activityOptional = activityCache.findById(dto.idActivity(), activityRepository::findScheduleById);
+        var user = currentUser();
 
-        if (activityOptional.isEmpty() || userOptional.isEmpty()) {
+        if (activityOptional.isEmpty() || user == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User or activity not found");
         }
 
         var activity = activityOptional.get();
-        var user = userOptional.get();
-        var now = LocalDateTime.now();
+        var now = LocalDateTime.now(clock);
 
-        if (activity.getFinishTime().isBefore(now)) {
+        if (activity.finishTime().isBefore(now)) {
+            checkinMetrics.rejected(CheckinMetrics.FINISHED);
             throw new BusinessExceptions("Unable to check in to an activity that has already finished");
         }
 
-        long checkinCount = checkinRepository.countByActivityId(activity.getId());
-        if (checkinCount >= activity.getLimitPeople()) {
+        if (!reservationEngine.tryReserve(activity.id(), activity.limitPeople())) {
+            checkinMetrics.rejected(CheckinMetrics.FULL);
             throw new BusinessExceptions("Check-in unavailable. This activity is full");
         }
+        settleReservationAfterCompletion(activity.id());
 
-        if (checkinRepository.existsByUserAndActivity(user, activity)) {
-            throw new BusinessExceptions("User has already checked in this activity");
-        }
-
-        LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1).minusSeconds(1);
-
-        boolean alreadyCheckedToday = checkinRepository.existsByUserAndCheckinTimeBetween(user, startOfDay, endOfDay);
-        if (alreadyCheckedToday) {
-            throw new BusinessExceptions("User has already checked today");
+        // o limite de vagas é garantido pelo update condicional; duplicidade e check-in diário pelas constraints
+        if (activityRepository.reserveSlot(activity.id(), now) == 0) {
+            checkinMetrics.rejected(CheckinMetrics.FULL);
+            throw new BusinessExceptions("Check-in unavailable. This activity is full");
         }
 
-        var checkin = new Checkin(user, activity);
-        checkinRepository.save(checkin);
+        var checkin = new Checkin(userRepository.getReferenceById(user.id()), activityRepository.getReferenceById(activity.id()), now);
+        saveAndTranslate(checkin);
+        attendanceCounters.checkedIn(user.id(), activity.id(), activity.startTime());
 
-        var current = new CheckinResponseDTO(user.getName(), activity.getDescription(), checkin.getCheckinTime());
+        var current = new CheckinResponseDTO(user.name(), activity.description(), checkin.getCheckinTime());
 
-        var history = checkinRepository.findByUserOrderByCheckinTimeDesc(user).stream()
-                .map(c -> new CheckinResponseDTO(
-                        c.getUser().getName(),
-                        c.getActivity().getDescription(),
-                        c.getCheckinTime()
-                ))
-                .toList();
+        // só os check-ins mais recentes; o histórico completo fica em /checkin/history
+        List<CheckinResponseDTO> history = includeHistory
+                ? findHistory(user, null, null, recentHistorySize).items()
+                : List.of();
 
         return new CheckinWithHistoryDTO(current, history);
     }
 
     @Override
-    public List<Checkin> findAll() {
-        return checkinRepository.findAll();
+    public List<CheckinDetailsDTO> findAll() {
+        return checkinRepository.findAllDetails();
     }
 
     @Override
-    public Optional<Checkin> findById(Long id) {
-        return checkinRepository.findById(id);
+    public Optional<CheckinDetailsDTO> findById(Long id) {
+        return checkinRepository.findDetailsById(id);
     }
 
     @Override
-    public Checkin update(Long id, Checkin checkin) {
-       Checkin existingCheckin = checkinRepository.findById(id)
-                       .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Checkin Not Found with ID: " + id));
-            existingCheckin.setCheckinTime(checkin.getCheckinTime());
-            return checkinRepository.save(existingCheckin);
+    @Transactional
+    public CheckinDetailsDTO update(Long id, CheckinUpdateDTO dto) {
+        Checkin existingCheckin = checkinRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Checkin Not Found with ID: " + id));
+        existingCheckin.setCheckinTime(dto.checkinTime());
+        var saved = saveAndTranslate(existingCheckin);
+        // montado dentro da transação: a resposta não depende de carregar nada depois do commit
+        return new CheckinDetailsDTO(saved.getId(), saved.getUser().getId(), saved.getUser().getName(),
+                saved.getActivity().getId(), saved.getActivity().getDescription(), saved.getCheckinTime());
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        checkinRepository.deleteById(id);
+        checkinRepository.findById(id).ifPresent(checkin -> {
+            var activityId = checkin.getActivity().getId();
+            checkinRepository.delete(checkin);
+            attendanceCounters.cancelled(checkin.getUser().getId(), activityId, activityStart(activityId));
+            var now = LocalDateTime.now(clock);
+            activityRepository.releaseSlot(activityId, now);
+            // a vaga vai direto para o primeiro da fila de espera; a ocupação não muda
+            if (waitlistService.promoteNext(activityId, now)) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reservationEngine.free(activityId);
+                    occupancyStream.changed(activityId);
+                }
+            });
+        });
     }
 
-    public List<CheckinResponseDTO> getUserCheckinsHistory() {
-        var userOptional = userRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName());
+    @Override
+    public CheckinHistoryPageDTO findHistory(LocalDateTime beforeCheckinTime, Long beforeId, int size) {
+        var user = currentUser();
 
-        if (userOptional.isEmpty()) {
+        if (user == null) {
             throw new BusinessExceptions("User not found");
         }
 
-        var user = userOptional.get();
-        var checkins = checkinRepository.findByUserOrderByCheckinTimeDesc(user);
+        return findHistory(user, beforeCheckinTime, beforeId, Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE));
+    }
 
-        return checkins.stream()
-                .map(c -> new CheckinResponseDTO(
-                        c.getUser().getName(),
-                        c.getActivity().getDescription(),
-                        c.getCheckinTime()
-                ))
+    private CheckinHistoryPageDTO findHistory(AuthenticatedUser user, LocalDateTime beforeCheckinTime, Long beforeId, int size) {
+        // busca um a mais para saber se existe próxima página
+        var limit = Limit.of(size + 1);
+        var rows = beforeCheckinTime == null || beforeId == null
+                ? checkinRepository.findHistory(user.id(), limit)
+                : checkinRepository.findHistoryBefore(user.id(), beforeCheckinTime, beforeId, limit);
+
+        var page = rows.size() > size ? rows.subList(0, size) : rows;
+        var items = page.stream()
+                .map(CheckinHistoryRowDTO::toResponse)
                 .toList();
+
+        if (rows.size() <= size) {
+            return new CheckinHistoryPageDTO(items, null, null);
+        }
+        var last = page.get(page.size() - 1);
+        return new CheckinHistoryPageDTO(items, last.checkinTime(), last.id());
+    }
+
+    private LocalDateTime activityStart(Long activityId) {
+        return activityCache.findById(activityId, activityRepository::findScheduleById)
+                .map(ActivityResponseDTO::startTime)
+                .orElse(null);
+    }
+
+    // o SecurityFilter já identificou o usuário, não precisa buscar de novo no banco
+    private AuthenticatedUser currentUser() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user ? user : null;
+    }
+
+    // a reserva em memória só é confirmada se a transação for commitada
+    private void settleReservationAfterCompletion(Long activityId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reservationEngine.confirm(activityId);
+                    occupancyStream.changed(activityId);
+                } else {
+                    reservationEngine.release(activityId);
+                }
+            }
+        });
+    }
+
+    private Checkin saveAndTranslate(Checkin checkin) {
+        try {
+            return checkinRepository.saveAndFlush(checkin);
+        } catch (DataIntegrityViolationException e) {
+            var cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase();
+            if (cause.contains(Checkin.UNIQUE_USER_ACTIVITY)) {
+                checkinMetrics.rejected(CheckinMetrics.DUPLICATE);
+                throw new BusinessExceptions("User has already checked in this activity");
+            }
+            if (cause.contains(Checkin.UNIQUE_USER_DAY)) {
+                checkinMetrics.rejected(CheckinMetrics.ALREADY_TODAY);
+                throw new BusinessExceptions("User has already checked today");
+            }
+            throw e;
+        }
     }
 
 }
@@ -1,29 +1,42 @@
 package com.arianewelke.checkFit.service.implement;
 
 import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.security.AuthenticationCache;
+import com.arianewelke.checkFit.infra.security.PasswordHashingService;
+import com.arianewelke.checkFit.infra.uniqueness.UserUniquenessIndex;
 import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.repository.WaitlistRepository;
 import com.arianewelke.checkFit.service.interfaces.UserService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserServiceImp implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final AuthenticationCache authenticationCache;
+    private final UserUniquenessIndex uniquenessIndex;
+    private final WaitlistRepository waitlistRepository;
 
-    public UserServiceImp(UserRepository userRepository) {
+    public UserServiceImp(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                          AuthenticationCache authenticationCache, UserUniquenessIndex uniquenessIndex,
+                          WaitlistRepository waitlistRepository) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHashingService = passwordHashingService;
+        this.authenticationCache = authenticationCache;
+        this.uniquenessIndex = uniquenessIndex;
+        this.waitlistRepository = waitlistRepository;
     }
 
     @Override
     public User save(User user) {
-        return userRepository.save(user);
+        var saved = userRepository.save(user);
+        uniquenessIndex.add(saved);
+        return saved;
     }
 
     @Override
@@ -36,22 +49,31 @@ public class UserServiceImp implements UserService {
         return userRepository.findById(id);
     }
 
+    // o BCrypt roda no pool de hashing e a gravação no executor de tarefas, como no login e no cadastro;
+    // a thread do Tomcat não espera o hash
     @Override
-    public User update(Long id, User user) {
+    public CompletableFuture<User> update(Long id, User user) {
         User userToUpdate = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        return passwordHashingService.encode(user.getPassword()).thenApply(password -> {
             userToUpdate.setName(user.getName());
             userToUpdate.setPhone(user.getPhone());
             userToUpdate.setCpf(user.getCpf());
             userToUpdate.setDateBirth(user.getDateBirth());
-            userToUpdate.setPassword(passwordEncoder.encode(user.getPassword()));
+            userToUpdate.setPassword(password);
             userToUpdate.setEmail(user.getEmail());
-            return userRepository.save(userToUpdate);
+            var updated = userRepository.save(userToUpdate);
+            authenticationCache.invalidateUser(id);
+            uniquenessIndex.add(updated);
+            return updated;
+        });
     }
 
     @Override
     public void delete(Long id) {
+        waitlistRepository.deleteByUser(id);
         userRepository.deleteById(id);
+        authenticationCache.invalidateUser(id);
     }
 
     @Override
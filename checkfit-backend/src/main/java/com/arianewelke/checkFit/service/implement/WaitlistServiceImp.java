@@ -0,0 +1,183 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.WaitlistPositionDTO;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.WaitlistEntry;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.analytics.AttendanceCounters;
+import com.arianewelke.checkFit.infra.cache.ActivityCache;
+import com.arianewelke.checkFit.infra.metrics.CheckinMetrics;
+import com.arianewelke.checkFit.infra.reservation.SlotReservationEngine;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.repository.WaitlistRepository;
+import com.arianewelke.checkFit.service.interfaces.WaitlistService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+@Service
+public class WaitlistServiceImp implements WaitlistService {
+
+    private static final String INSERT_CHECKIN = "insert into checkin (user_id, activity_id, checkin_time, checkin_date) values (?, ?, ?, ?)";
+
+    private final WaitlistRepository waitlistRepository;
+    private final CheckinRepository checkinRepository;
+    private final UserRepository userRepository;
+    private final ActivityRepository activityRepository;
+    private final SlotReservationEngine reservationEngine;
+    private final ActivityCache activityCache;
+    private final CheckinMetrics checkinMetrics;
+    private final Clock clock;
+    private final AttendanceCounters attendanceCounters;
+    private final JdbcTemplate jdbcTemplate;
+
+    public WaitlistServiceImp(WaitlistRepository waitlistRepository, CheckinRepository checkinRepository, UserRepository userRepository,
+                              ActivityRepository activityRepository, SlotReservationEngine reservationEngine,
+                              ActivityCache activityCache, CheckinMetrics checkinMetrics, Clock clock,
+                              AttendanceCounters attendanceCounters, JdbcTemplate jdbcTemplate) {
+        this.waitlistRepository = waitlistRepository;
+        this.checkinRepository = checkinRepository;
+        this.userRepository = userRepository;
+        this.activityRepository = activityRepository;
+        this.reservationEngine = reservationEngine;
+        this.activityCache = activityCache;
+        this.checkinMetrics = checkinMetrics;
+        this.clock = clock;
+        this.attendanceCounters = attendanceCounters;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public WaitlistPositionDTO join(Long activityId) {
+        var activityOptional = activityCache.findById(activityId, activityRepository::findScheduleById);
+        var user = currentUser();
+
+        if (activityOptional.isEmpty() || user == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User or activity not found");
+        }
+
+        var activity = activityOptional.get();
+        var now = LocalDateTime.now(clock);
+
+        if (activity.finishTime().isBefore(now)) {
+            throw new BusinessExceptions("Unable to join the waitlist of an activity that has already finished");
+        }
+
+        // só entra na fila quem de fato não conseguiria a vaga agora
+        if (reservationEngine.occupancy(activityId) < activity.limitPeople()) {
+            throw new BusinessExceptions("This activity still has slots available, check in instead");
+        }
+
+        var conflicts = checkinRepository.findActivityOrDayConflicts(user.id(), activityId, now.toLocalDate());
+        if (conflicts.contains(activityId)) {
+            throw new BusinessExceptions("User has already checked in this activity");
+        }
+        if (!conflicts.isEmpty()) {
+            throw new BusinessExceptions("User has already checked today");
+        }
+
+        try {
+            waitlistRepository.saveAndFlush(new WaitlistEntry(userRepository.getReferenceById(user.id()),
+                    activityRepository.getReferenceById(activityId), now));
+        } catch (DataIntegrityViolationException e) {
+            var cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase();
+            if (cause.contains(WaitlistEntry.UNIQUE_USER_ACTIVITY)) {
+                throw new BusinessExceptions("User is already on the waitlist for this activity");
+            }
+            throw e;
+        }
+
+        return new WaitlistPositionDTO(activityId, waitlistRepository.findPosition(activityId, user.id()));
+    }
+
+    @Override
+    public WaitlistPositionDTO position(Long activityId) {
+        var user = requireUser();
+        return new WaitlistPositionDTO(activityId, waitlistRepository.findPosition(activityId, user.id()));
+    }
+
+    @Override
+    public void leave(Long activityId) {
+        waitlistRepository.removeUser(activityId, requireUser().id());
+    }
+
+    // Chamado na transação do cancelamento, logo depois do releaseSlot. A linha da atividade fica
+    // travada até o commit, então a vaga liberada não escapa para quem está fora da fila; o
+    // reserveSlot continua sendo quem garante o limite. Quem já fez check-in nesta atividade ou
+    // no mesmo dia sai da fila e a vaga vai para o próximo, inclusive quando esse check-in chega entre a
+    // consulta e o insert: aí a constraint recusa, a vaga é devolvida e a fila segue. A entrada só sai da
+    // fila depois do insert; se a vaga não pôde ser reservada (aula já terminou), a fila fica como está.
+    @Override
+    public boolean promoteNext(Long activityId, LocalDateTime now) {
+        while (true) {
+            var head = waitlistRepository.findHead(activityId, Limit.of(1));
+            if (head.isEmpty()) {
+                return false;
+            }
+            var entry = head.get(0);
+            var userId = entry.getUser().getId();
+            if (checkinRepository.existsForActivityOrDay(userId, activityId, now.toLocalDate())) {
+                waitlistRepository.removeEntry(entry.getId());
+                continue;
+            }
+            if (activityRepository.reserveSlot(activityId, now) == 0) {
+                return false;
+            }
+            if (!insertCheckin(userId, activityId, now)) {
+                activityRepository.releaseSlot(activityId, now);
+                waitlistRepository.removeEntry(entry.getId());
+                continue;
+            }
+            waitlistRepository.removeEntry(entry.getId());
+            checkinMetrics.promoted();
+            attendanceCounters.checkedIn(userId, activityId, activityCache.findById(activityId, activityRepository::findScheduleById)
+                    .map(ActivityResponseDTO::startTime)
+                    .orElse(null));
+            return true;
+        }
+    }
+
+    // Insert direto, fora do Hibernate: uma violação vinda do EntityManager marca a transação inteira
+    // para rollback, e aqui ela é a do cancelamento, que precisa seguir. No MySQL (e no H2) a violação
+    // desfaz só o statement. Falso quando a constraint recusa; qualquer outro erro sobe.
+    private boolean insertCheckin(Long userId, Long activityId, LocalDateTime now) {
+        try {
+            jdbcTemplate.update(INSERT_CHECKIN, userId, activityId, Timestamp.valueOf(now), Date.valueOf(now.toLocalDate()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            var cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase();
+            if (cause.contains(Checkin.UNIQUE_USER_ACTIVITY) || cause.contains(Checkin.UNIQUE_USER_DAY)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private AuthenticatedUser requireUser() {
+        var user = currentUser();
+        if (user == null) {
+            throw new BusinessExceptions("User not found");
+        }
+        return user;
+    }
+
+    private AuthenticatedUser currentUser() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user ? user : null;
+    }
+}
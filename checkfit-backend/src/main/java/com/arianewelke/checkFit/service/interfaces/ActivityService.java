@@ -1,15 +1,31 @@
 package com.arianewelke.checkFit.service.interfaces;
 
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.ActivitySchedulePageDTO;
+import com.arianewelke.checkFit.dto.ActivityVersionDTO;
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleRequestDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleResponseDTO;
 import com.arianewelke.checkFit.entity.Activity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface ActivityService {
 
     Activity save(Activity activity);
-    List<Activity> findAll();
-    Optional<Activity> findById(Long id);
+    RecurringScheduleResponseDTO createRecurring(RecurringScheduleRequestDTO schedule);
+    List<ActivityResponseDTO> findAll();
+    List<ActivityResponseDTO> findOpenNow();
+    ActivitySchedulePageDTO findSchedule(LocalDateTime from, LocalDateTime to, LocalDateTime afterStartTime, Long afterId, int size);
+    Optional<ActivityResponseDTO> findById(Long id);
     Activity update(Long id, Activity activity);
     void delete(Long id);
+    Optional<AvailabilityResponseDTO> findAvailability(Long id);
+    List<AvailabilityResponseDTO> findAvailability(List<Long> ids, LocalDateTime from, LocalDateTime to);
+    ActivityVersionDTO findScheduleVersion(LocalDateTime from, LocalDateTime to, LocalDateTime afterStartTime, Long afterId);
+    ActivityVersionDTO findAvailabilityVersion(List<Long> ids, LocalDateTime from, LocalDateTime to);
+    String notFinishedETag();
+    String openNowETag();
 }
@@ -0,0 +1,15 @@
+package com.arianewelke.checkFit.service.interfaces;
+
+import com.arianewelke.checkFit.dto.AttendanceDTO;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface AttendanceService {
+    AttendanceDTO byActivity(Long activityId);
+    AttendanceDTO byMember(Long userId);
+    List<AttendanceDTO> byWeekday();
+    List<AttendanceDTO> byMonth(YearMonth from, YearMonth to);
+    void rebuild();
+    boolean rebuildInBackground();
+}
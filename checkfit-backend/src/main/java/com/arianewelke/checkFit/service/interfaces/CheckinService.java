@@ -1,16 +1,20 @@
 package com.arianewelke.checkFit.service.interfaces;
 
+import com.arianewelke.checkFit.dto.CheckinDetailsDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryPageDTO;
 import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.dto.CheckinUpdateDTO;
 import com.arianewelke.checkFit.dto.CheckinWithHistoryDTO;
-import com.arianewelke.checkFit.entity.Checkin;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface CheckinService {
-    CheckinWithHistoryDTO save(CheckinRequestDTO dto);
-    List<Checkin> findAll();
-    Optional<Checkin> findById(Long id);
-    Checkin update(Long id, Checkin checkin);
+    CheckinWithHistoryDTO save(CheckinRequestDTO dto, boolean includeHistory);
+    List<CheckinDetailsDTO> findAll();
+    Optional<CheckinDetailsDTO> findById(Long id);
+    CheckinDetailsDTO update(Long id, CheckinUpdateDTO dto);
     void delete(Long id);
+    CheckinHistoryPageDTO findHistory(LocalDateTime beforeCheckinTime, Long beforeId, int size);
 }
@@ -4,12 +4,13 @@ import com.arianewelke.checkFit.entity.User;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
     User save(User user);
     List<User> findAll();
     Optional<User> findById(Long id);
-    User update(Long id, User user);
+    CompletableFuture<User> update(Long id, User user);
     void delete(Long id);
     List<User> findByEmail(String user);
 
@@ -0,0 +1,12 @@
+package com.arianewelke.checkFit.service.interfaces;
+
+import com.arianewelke.checkFit.dto.WaitlistPositionDTO;
+
+import java.time.LocalDateTime;
+
+public interface WaitlistService {
+    WaitlistPositionDTO join(Long activityId);
+    WaitlistPositionDTO position(Long activityId);
+    void leave(Long activityId);
+    boolean promoteNext(Long activityId, LocalDateTime now);
+}
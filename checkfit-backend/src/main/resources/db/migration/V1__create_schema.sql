@@ -0,0 +1,90 @@
+-- Schema inicial, igual ao que o Hibernate gerava com ddl-auto=update. Daqui em diante toda mudança
+-- de entidade vem com uma migração nova; a aplicação sobe com ddl-auto=validate.
+
+create table user (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255),
+    phone varchar(255),
+    cpf varchar(255),
+    date_birth date,
+    password varchar(255),
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_user_email unique (email),
+    constraint uk_user_cpf unique (cpf),
+    constraint uk_user_phone unique (phone)
+) engine=InnoDB;
+
+create table activity (
+    id bigint not null,
+    start_time datetime(6),
+    finish_time datetime(6),
+    description varchar(255),
+    limit_people integer not null,
+    occupied_slots integer not null,
+    version bigint not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_activity_start_time on activity (start_time, id);
+
+-- sequência de Activity emulada em tabela (o MySQL não tem sequence); blocos de 50 ids
+create table activity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into activity_seq values (1);
+
+create table checkin (
+    id bigint not null auto_increment,
+    user_id bigint,
+    activity_id bigint,
+    checkin_time datetime(6),
+    checkin_date date,
+    primary key (id),
+    constraint uk_checkin_user_activity unique (user_id, activity_id),
+    constraint uk_checkin_user_day unique (user_id, checkin_date),
+    constraint fk_checkin_user foreign key (user_id) references user (id),
+    constraint fk_checkin_activity foreign key (activity_id) references activity (id)
+) engine=InnoDB;
+
+create index idx_checkin_user_time on checkin (user_id, checkin_time);
+
+-- check-ins de atividades já encerradas; o id é o mesmo da linha original em checkin
+create table checkin_archive (
+    id bigint not null,
+    user_id bigint,
+    activity_id bigint,
+    checkin_time datetime(6),
+    checkin_date date,
+    primary key (id),
+    constraint fk_checkin_archive_user foreign key (user_id) references user (id),
+    constraint fk_checkin_archive_activity foreign key (activity_id) references activity (id)
+) engine=InnoDB;
+
+create index idx_checkin_archive_user_time on checkin_archive (user_id, checkin_time);
+create index idx_checkin_archive_activity on checkin_archive (activity_id);
+
+create table waitlist_entry (
+    id bigint not null auto_increment,
+    user_id bigint,
+    activity_id bigint,
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_waitlist_user_activity unique (user_id, activity_id),
+    constraint fk_waitlist_entry_user foreign key (user_id) references user (id),
+    constraint fk_waitlist_entry_activity foreign key (activity_id) references activity (id)
+) engine=InnoDB;
+
+create index idx_waitlist_activity on waitlist_entry (activity_id, id);
+
+create table attendance_summary (
+    id bigint not null auto_increment,
+    dimension enum ('ACTIVITY','MEMBER','MONTH','WEEKDAY') not null,
+    bucket varchar(32) not null,
+    checkins bigint not null,
+    primary key (id),
+    constraint uk_attendance_summary_bucket unique (dimension, bucket)
+) engine=InnoDB;
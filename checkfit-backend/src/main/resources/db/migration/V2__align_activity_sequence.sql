@@ -0,0 +1,5 @@
+-- Bancos que vieram do ddl-auto=update (marcados como versão 1 pelo baseline) podem ter ids de Activity
+-- gerados quando ela ainda usava IDENTITY. Avança a sequência para depois do maior id existente; o
+-- otimizador pooled entrega os ids (next_val - 50, next_val].
+update activity_seq set next_val = (select coalesce(max(id), 0) + 50 from activity)
+where next_val < (select coalesce(max(id), 0) + 50 from activity);
@@ -0,0 +1,169 @@
+package com.arianewelke.checkFit.controller;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.schedule.ActivityIntervalIndex;
+import com.arianewelke.checkFit.infra.security.AuthenticationCache;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GETs condicionais: ETag que bate responde 304 sem a consulta completa
+@SpringBootTest
+@AutoConfigureMockMvc
+class ActivityControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private ActivityIntervalIndex intervalIndex;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    private Statistics statistics;
+    private User member;
+    private String token;
+    private Activity activity;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        member = userRepository.save(new User("Member", "member@checkfit.com", "33333333333", "33333333333",
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+        token = tokenService.generateToken(member);
+        var start = LocalDateTime.now().plusDays(1);
+        activity = activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", 10));
+        intervalIndex.reload();
+        mockMvc.perform(authenticated(get("/activity/" + activity.getId()))).andExpect(status().isOk());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        authenticationCache.invalidateUser(member.getId());
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+        intervalIndex.reload();
+    }
+
+    @Test
+    void answersNotModifiedForAvailabilityUntilASlotChanges() throws Exception {
+        var etag = etagOf(authenticated(get("/activity/availability")));
+
+        statistics.clear();
+        mockMvc.perform(authenticated(get("/activity/availability")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // só a versão agregada, sem a consulta da disponibilidade
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        activityRepository.reserveSlot(activity.getId(), LocalDateTime.now());
+
+        mockMvc.perform(authenticated(get("/activity/availability")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].occupiedSlots").value(1));
+        assertNotEquals(etag, etagOf(authenticated(get("/activity/availability"))));
+    }
+
+    @Test
+    void answersNotModifiedForTheScheduleFromTheIndexWithoutQueries() throws Exception {
+        var etag = etagOf(authenticated(get("/activity")));
+
+        statistics.clear();
+        mockMvc.perform(authenticated(get("/activity")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        var schedule = etagOf(authenticated(get("/activity/schedule")));
+        mockMvc.perform(authenticated(get("/activity/schedule")).header(HttpHeaders.IF_NONE_MATCH, schedule))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void scheduleVersionOnlyCoversTheRequestedWindowAndSeesDeletes() throws Exception {
+        var lastWeek = LocalDateTime.now().minusWeeks(1);
+        var past = activityRepository.save(new Activity(lastWeek, lastWeek.plusHours(1), "Yoga", 10));
+        var etag = etagOf(authenticated(get("/activity/schedule")));
+
+        // uma aula fora da janela "a partir de agora" não muda a versão
+        activityRepository.reserveSlot(past.getId(), lastWeek);
+        mockMvc.perform(authenticated(get("/activity/schedule")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        activityRepository.deleteById(activity.getId());
+        mockMvc.perform(authenticated(get("/activity/schedule")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void updateWithStaleIfMatchIsRejected() throws Exception {
+        var etag = etagOf(authenticated(get("/activity/" + activity.getId())));
+        assertEquals("\"0\"", etag);
+
+        mockMvc.perform(update(etag, "Yoga"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(update(etag, "Pilates"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Activity was modified by another request"));
+        mockMvc.perform(authenticated(get("/activity/" + activity.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Yoga"));
+    }
+
+    private MockHttpServletRequestBuilder update(String ifMatch, String description) {
+        var start = activity.getStartTime();
+        return authenticated(put("/activity/" + activity.getId()))
+                .header(HttpHeaders.IF_MATCH, ifMatch)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"" + description + "\", \"startTime\": \"" + start + "\", \"finishTime\": \""
+                        + start.plusHours(1) + "\", \"limitPeople\": 10}");
+    }
+
+    private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,135 @@
+package com.arianewelke.checkFit.controller;
+
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TokenService tokenService;
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void registersAndLogsIn() throws Exception {
+        register("member@checkfit.com", "11999999999", "11111111111").andExpect(status().isCreated());
+
+        login("member@checkfit.com", "password1").andExpect(status().isOk());
+        login("member@checkfit.com", "password2")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid password"));
+    }
+
+    @Test
+    void uniqueRegistrationRunsOnlyTheInsert() throws Exception {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        register("unique@checkfit.com", "11988887777", "99988877766").andExpect(status().isCreated());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void rejectsDuplicatesEvenWhenTheIndexMissesThem() throws Exception {
+        register("member@checkfit.com", "11999999999", "11111111111").andExpect(status().isCreated());
+        register("member@checkfit.com", "11999999998", "11111111112")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Email already registered"));
+
+        // gravado direto no banco, sem passar pelo índice: a constraint da tabela responde
+        userRepository.save(new User("Other", "other@checkfit.com", "11977777777", "22222222222",
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+        register("new@checkfit.com", "11966666666", "22222222222")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("CPF already registered"));
+    }
+
+    @Test
+    void rehashesPasswordWhenStrengthChanges() throws Exception {
+        var user = new User("Member", "member@checkfit.com", "11999999999", "11111111111",
+                LocalDate.of(1990, 1, 1), new BCryptPasswordEncoder(4).encode("password1"), LocalDateTime.now());
+        userRepository.save(user);
+
+        login("member@checkfit.com", "password1").andExpect(status().isOk());
+
+        // a regravação é feita em segundo plano depois da resposta
+        long deadline = System.currentTimeMillis() + 5000;
+        String password;
+        do {
+            Thread.sleep(20);
+            password = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        } while (password.startsWith("$2a$04$") && System.currentTimeMillis() < deadline);
+        assertTrue(password.startsWith("$2a$05$"));
+        login("member@checkfit.com", "password1").andExpect(status().isOk());
+    }
+
+    @Test
+    void updateHashesTheNewPasswordWithoutHoldingTheRequestThread() throws Exception {
+        register("member@checkfit.com", "11999999999", "11111111111").andExpect(status().isCreated());
+        var user = userRepository.findByEmail("member@checkfit.com").orElseThrow();
+
+        var result = mockMvc.perform(put("/user/" + user.getId())
+                        .header("Authorization", "Bearer " + tokenService.generateToken(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Renamed\", \"email\": \"member@checkfit.com\", \"phone\": \"11999999999\", "
+                                + "\"cpf\": \"11111111111\", \"dateBirth\": \"1990-01-01\", \"password\": \"password2\"}"))
+                .andReturn();
+        assertTrue(result.getRequest().isAsyncStarted());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed"));
+
+        login("member@checkfit.com", "password2").andExpect(status().isOk());
+    }
+
+    private ResultActions register(String email, String phone, String cpf) throws Exception {
+        return perform("/auth/register", "{\"name\": \"Member\", \"email\": \"" + email + "\", \"phone\": \"" + phone
+                + "\", \"cpf\": \"" + cpf + "\", \"dateBirth\": \"1990-01-01\", \"password\": \"password1\"}");
+    }
+
+    private ResultActions login(String email, String password) throws Exception {
+        return perform("/auth/login", "{\"email\": \"" + email + "\", \"password\": \"" + password + "\"}");
+    }
+
+    private ResultActions perform(String path, String body) throws Exception {
+        var actions = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body));
+        // validações que falham antes do hashing respondem sem passar pelo processamento assíncrono
+        var result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
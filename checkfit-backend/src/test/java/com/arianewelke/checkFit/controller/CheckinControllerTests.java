@@ -0,0 +1,213 @@
+package com.arianewelke.checkFit.controller;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.security.AuthenticationCache;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// cada endpoint de leitura de check-in precisa rodar um número fixo de statements, independente do volume
+@SpringBootTest
+@AutoConfigureMockMvc
+class CheckinControllerTests {
+
+    private static final int ROWS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private CheckinRepository checkinRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    private Statistics statistics;
+    private User member;
+    private String token;
+    private List<Checkin> checkins;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        member = user("11111111111");
+        token = tokenService.generateToken(member);
+        checkins = new ArrayList<>();
+        var start = LocalDateTime.now().minusDays(30);
+        for (int day = 0; day < ROWS; day++) {
+            var activity = activityRepository.save(new Activity(start.plusDays(day), start.plusDays(day).plusHours(1), "Day " + day, 5));
+            var checkin = new Checkin(member, activity, start.plusDays(day));
+            checkins.add(checkinRepository.save(checkin));
+        }
+        // a primeira requisição com o token carrega o usuário; as seguintes usam o cache de autenticação
+        mockMvc.perform(authenticated(get("/checkin/history"))).andExpect(status().isOk());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // o mesmo token pode ser gerado de novo no próximo teste, para um usuário com outro id
+        authenticationCache.invalidateUser(member.getId());
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findAllRunsOneQueryForAllRows() throws Exception {
+        assertStatements(1, authenticated(get("/checkin")), ROWS);
+    }
+
+    @Test
+    void findByIdRunsOneQuery() throws Exception {
+        mockMvc.perform(authenticated(get("/checkin/" + checkins.get(0).getId())))
+                .andExpect(jsonPath("$.activityDescription").value("Day 0"));
+        assertStatements(1, authenticated(get("/checkin/" + checkins.get(0).getId())), null);
+    }
+
+    @Test
+    void historyRunsOneQueryPerPage() throws Exception {
+        assertStatements(1, authenticated(get("/checkin/history").param("size", "4")), null);
+    }
+
+    @Test
+    void saveRunsFixedNumberOfStatements() throws Exception {
+        var start = LocalDateTime.now().plusHours(1);
+        var activity = activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", 10));
+        mockMvc.perform(post("/checkin")
+                        .header("Authorization", "Bearer " + tokenService.generateToken(user("22222222222")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idActivity\": " + activity.getId() + "}"))
+                .andExpect(status().isOk());
+
+        // update condicional (1) + insert (1) + histórico recente (1); a atividade já está no cache
+        assertStatements(3, authenticated(post("/checkin")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"idActivity\": " + activity.getId() + "}")), null);
+    }
+
+    @Test
+    void replaysIdempotentCheckinWithoutTouchingTheDatabase() throws Exception {
+        var start = LocalDateTime.now().plusHours(1);
+        var activity = activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", 10));
+        var other = activityRepository.save(new Activity(start, start.plusHours(1), "Yoga", 10));
+        var request = authenticated(post("/checkin"))
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"idActivity\": " + activity.getId() + "}");
+        var first = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        statistics.clear();
+        var replay = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(first, replay);
+
+        mockMvc.perform(authenticated(post("/checkin"))
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idActivity\": " + other.getId() + "}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Idempotency-Key was already used for a different request"));
+    }
+
+    @Test
+    void writeEndpointsAnswerWithFlatDtos() throws Exception {
+        var checkin = checkins.get(0);
+        mockMvc.perform(authenticated(put("/checkin/" + checkin.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"checkinTime\": \"" + checkin.getCheckinTime().plusMinutes(5) + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value("Member 11111111111"))
+                .andExpect(jsonPath("$.activityDescription").value("Day 0"))
+                .andExpect(jsonPath("$.activity").doesNotExist());
+
+        var start = LocalDateTime.now().plusDays(1);
+        mockMvc.perform(authenticated(put("/activity/" + checkin.getActivity().getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Yoga\", \"startTime\": \"" + start + "\", \"finishTime\": \""
+                                + start.plusHours(1) + "\", \"limitPeople\": 8}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Yoga"))
+                .andExpect(jsonPath("$.checkins").doesNotExist());
+
+        mockMvc.perform(authenticated(get("/user/" + member.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("11111111111@checkfit.com"))
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$.checkins").doesNotExist());
+    }
+
+    @Test
+    void exportsNdjsonAndCsv() throws Exception {
+        var ndjson = mockMvc.perform(authenticated(get("/checkin/export")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(ROWS, ndjson.lines().count());
+        assertTrue(ndjson.lines().allMatch(line -> line.startsWith("{\"id\":")));
+
+        var csv = mockMvc.perform(authenticated(get("/checkin/export")
+                        .param("format", "csv")
+                        .param("activityId", String.valueOf(checkins.get(2).getActivity().getId()))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        var lines = csv.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("id,userId,userName,activityId,activityDescription,checkinTime", lines.get(0));
+        assertTrue(lines.get(1).contains(",Member 11111111111,"));
+        assertTrue(lines.get(1).contains(",Day 2,"));
+    }
+
+    private void assertStatements(long expected, RequestBuilder request, Integer expectedRows) throws Exception {
+        statistics.clear();
+        var result = mockMvc.perform(request).andExpect(status().isOk());
+        if (expectedRows != null) {
+            result.andExpect(jsonPath("$.length()").value(expectedRows));
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private User user(String document) {
+        return userRepository.save(new User("Member " + document, document + "@checkfit.com", document, document,
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.arianewelke.checkFit.infra.archive;
+
+import com.arianewelke.checkFit.dto.CheckinResponseDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.reservation.SlotReservationEngine;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.ArchivedCheckinRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "api.checkin.archive.batch-size=2")
+class CheckinArchiverTests {
+
+    @Autowired
+    private CheckinArchiver archiver;
+    @Autowired
+    private CheckinService checkinService;
+    @Autowired
+    private CheckinRepository checkinRepository;
+    @Autowired
+    private ArchivedCheckinRepository archivedCheckinRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SlotReservationEngine reservationEngine;
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        archivedCheckinRepository.deleteAll();
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void movesCheckinsOfPastDaysInBatchesAndKeepsThemInTheHistory() {
+        var user = userRepository.save(new User("Member", "member@checkfit.com", "11111111111", "11111111111",
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+        var start = LocalDateTime.now().minusDays(10);
+        for (int day = 0; day < 5; day++) {
+            checkin(user, start.plusDays(day), "Day " + day);
+        }
+        var upcoming = checkin(user, LocalDateTime.now().plusHours(2), "Upcoming");
+
+        assertEquals(5, archiver.archive());
+
+        assertEquals(List.of(upcoming.getId()), checkinRepository.findAll().stream().map(Checkin::getId).toList());
+        assertEquals(5, archivedCheckinRepository.count());
+        assertEquals(0, archiver.archive());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, List.of()));
+        var first = checkinService.findHistory(null, null, 3);
+        var second = checkinService.findHistory(first.nextCheckinTime(), first.nextId(), 3);
+        assertEquals(List.of("Upcoming", "Day 4", "Day 3"), first.items().stream().map(CheckinResponseDTO::description).toList());
+        assertEquals(List.of("Day 2", "Day 1", "Day 0"), second.items().stream().map(CheckinResponseDTO::description).toList());
+
+        var archivedId = archivedCheckinRepository.findAll().get(0).getId();
+        assertTrue(checkinService.findById(archivedId).isPresent());
+        assertEquals(6, checkinService.findAll().size());
+
+        // a sincronização da subida recalcula só o que ainda não terminou e não mexe nas aulas arquivadas
+        reservationEngine.synchronize();
+        assertEquals(1, activityRepository.findOccupiedSlotsById(upcoming.getActivity().getId()).orElseThrow());
+        var archivedActivity = archivedCheckinRepository.findAll().get(0).getActivity().getId();
+        assertEquals(0, activityRepository.findOccupiedSlotsById(archivedActivity).orElseThrow());
+    }
+
+    private Checkin checkin(User user, LocalDateTime start, String description) {
+        var activity = activityRepository.save(new Activity(start, start.plusHours(1), description, 5));
+        return checkinRepository.save(new Checkin(user, activity, start));
+    }
+}
@@ -0,0 +1,75 @@
+package com.arianewelke.checkFit.infra.idempotency;
+
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTests {
+
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstResult() throws Exception {
+        var executions = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var first = CompletableFuture.supplyAsync(() -> store.execute("key", 1L, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var duplicate = CompletableFuture.supplyAsync(() -> store.execute("key", 1L, () -> {
+            executions.incrementAndGet();
+            return "duplicate";
+        }));
+
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("first", duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void replaysBusinessErrorsButRetriesUnexpectedFailures() {
+        var executions = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            var exception = assertThrows(BusinessExceptions.class, () -> store.execute("full", 1L, () -> {
+                executions.incrementAndGet();
+                throw new BusinessExceptions("Check-in unavailable. This activity is full");
+            }));
+            assertEquals("Check-in unavailable. This activity is full", exception.getMessage());
+        }
+        assertEquals(1, executions.get());
+
+        assertThrows(IllegalStateException.class, () -> store.execute("down", 1L, () -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertEquals("ok", store.execute("down", 1L, () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.arianewelke.checkFit.infra.metrics;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ActivityOccupancyMetrics occupancyMetrics;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private CheckinRepository checkinRepository;
+
+    @AfterEach
+    void cleanUp() {
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exposesCheckinAuthAndPersistenceMetrics() throws Exception {
+        var start = LocalDateTime.now().plusHours(1);
+        var activity = activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", 1));
+        var finished = activityRepository.save(new Activity(start.minusHours(3), start.minusHours(2), "Yoga", 5));
+        checkin(user("11111111111"), activity).andExpect(status().isOk());
+        checkin(user("22222222222"), activity).andExpect(status().isBadRequest());
+        checkin(user("33333333333"), finished).andExpect(status().isBadRequest());
+        occupancyMetrics.refresh();
+
+        var scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertContains(scrape, "checkfit_checkin_rejections_total{reason=\"full\"} 1.0");
+        assertContains(scrape, "checkfit_checkin_rejections_total{reason=\"finished\"} 1.0");
+        assertContains(scrape, "checkfit_checkin_rejections_total{reason=\"duplicate\"} 0.0");
+        assertContains(scrape, "checkfit_activity_occupied_slots{activity=\"" + activity.getId() + "\"} 1.0");
+        assertContains(scrape, "checkfit_activity_capacity_slots{activity=\"" + activity.getId() + "\"} 1.0");
+        assertContains(scrape, "checkfit_http_statements_count{method=\"POST\",uri=\"/checkin\"} 3");
+        assertContains(scrape, "http_server_requests_seconds_bucket{");
+        assertContains(scrape, "uri=\"/checkin\",le=\"0.005\"}");
+        assertContains(scrape, "hikaricp_connections_active");
+    }
+
+    private ResultActions checkin(User user, Activity activity) throws Exception {
+        return mockMvc.perform(post("/checkin")
+                .header("Authorization", "Bearer " + tokenService.generateToken(user))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"idActivity\": " + activity.getId() + "}"));
+    }
+
+    private User user(String document) {
+        return userRepository.save(new User("Member " + document, document + "@checkfit.com", document, document,
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+    }
+
+    private static void assertContains(String scrape, String expected) {
+        assertTrue(scrape.contains(expected), () -> "missing " + expected + " in\n" + scrape);
+    }
+}
@@ -0,0 +1,115 @@
+package com.arianewelke.checkFit.infra.migration;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// banco como o antigo ddl-auto=update deixava (sem histórico do Flyway), subindo com Flyway e validate
+@SpringBootTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.flyway.enabled=true",
+        // como em application.properties do main
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class LegacySchemaUpgradeTests {
+
+    private static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    // roda antes de o contexto abrir o banco
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (var connection = DriverManager.getConnection(URL, "sa", ""); var statement = connection.createStatement()) {
+            statement.execute("create table user (id bigint not null auto_increment, cpf varchar(255), created_at datetime(6), "
+                    + "date_birth date, email varchar(255), name varchar(255), password varchar(255), phone varchar(255), primary key (id))");
+            statement.execute("create table activity (id bigint not null auto_increment, description varchar(255), "
+                    + "finish_time datetime(6), limit_people integer not null, start_time datetime(6), primary key (id))");
+            statement.execute("create table checkin (id bigint not null auto_increment, checkin_time datetime(6), "
+                    + "activity_id bigint, user_id bigint, primary key (id), "
+                    + "constraint FKlegacyactivity foreign key (activity_id) references activity (id), "
+                    + "constraint FKlegacyuser foreign key (user_id) references user (id))");
+            statement.execute("insert into user (id, email, name) values (1, 'member@checkfit.com', 'Member')");
+            statement.execute("insert into activity (id, description, limit_people, start_time, finish_time) "
+                    + "values (70, 'Spinning', 10, '2026-01-10 10:00:00', '2026-01-10 11:00:00')");
+            statement.execute("insert into activity (id, description, limit_people, start_time, finish_time) "
+                    + "values (71, 'Yoga', 10, '2026-01-10 18:00:00', '2026-01-10 19:00:00')");
+            statement.execute("insert into checkin (user_id, activity_id, checkin_time) values (1, 70, '2026-01-10 09:30:00')");
+            // o banco antigo aceitava dois check-ins do mesmo membro no mesmo dia
+            statement.execute("insert into checkin (user_id, activity_id, checkin_time) values (1, 71, '2026-01-10 17:30:00')");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void upgradesTheLegacySchemaRightAfterTheBaseline() {
+        // o contexto só sobe se as entidades baterem com o schema completado
+        assertEquals("2", flyway.info().current().getVersion().getVersion());
+
+        assertEquals(1, jdbcTemplate.queryForObject("select occupied_slots from activity where id = 70", Integer.class));
+        assertEquals("2026-01-10", jdbcTemplate.queryForObject("select checkin_date from checkin", String.class));
+        // o repetido foi para o arquivo, com o dia preenchido, e segue contando na ocupação da aula
+        assertEquals(71L, jdbcTemplate.queryForObject("select activity_id from checkin_archive where checkin_date = '2026-01-10'", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select occupied_slots from activity where id = 71", Integer.class));
+        var now = LocalDateTime.now();
+        var activity = activityRepository.save(new Activity(now, now.plusHours(1), "Yoga", 10));
+        assertTrue(activity.getId() > 70);
+
+        // as constraints do V1 também vieram
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "insert into checkin (user_id, activity_id, checkin_time, checkin_date) values (1, 70, '2026-01-10 12:00:00', '2026-01-10')"));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "insert into user (email, name) values ('member@checkfit.com', 'Copy')"));
+        activityRepository.delete(activity);
+    }
+
+    @Test
+    void stopsWithTheDuplicatedAccountsInsteadOfAFailedConstraint() throws SQLException {
+        try (var connection = DriverManager.getConnection("jdbc:h2:mem:legacy-duplicates;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER", "sa", "");
+             var statement = connection.createStatement()) {
+            statement.execute("create table user (id bigint not null auto_increment, cpf varchar(255), created_at datetime(6), "
+                    + "date_birth date, email varchar(255), name varchar(255), password varchar(255), phone varchar(255), primary key (id))");
+            statement.execute("insert into user (id, email, cpf, name) values (1, 'member@checkfit.com', '111', 'Member')");
+            statement.execute("insert into user (id, email, cpf, name) values (2, 'other@checkfit.com', '222', 'Other')");
+            statement.execute("insert into user (id, email, cpf, name) values (3, 'member@checkfit.com', '333', 'Copy')");
+
+            var exception = assertThrows(FlywayException.class, () -> new LegacySchemaUpgrade().upgrade(connection));
+            assertTrue(exception.getMessage().contains("user.email 'member@checkfit.com' in ids 1, 3"), exception.getMessage());
+            // nada de constraint pela metade: o operador corrige e a próxima subida completa tudo
+            assertEquals(0, countIndexes(connection, "uk_user_email"));
+        }
+    }
+
+    private static int countIndexes(java.sql.Connection connection, String name) throws SQLException {
+        try (var statement = connection.prepareStatement("select count(*) from information_schema.indexes where index_name = ?")) {
+            statement.setString(1, name);
+            try (var rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.arianewelke.checkFit.infra.reservation;
+
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlotReservationEngineTests {
+
+    private static final int CLIENTS = 500;
+    private static final Duration IDLE = Duration.ofHours(1);
+
+    @Test
+    void concurrentReservationsNeverExceedLimit() throws Exception {
+        var repository = mock(ActivityRepository.class);
+        when(repository.findOccupiedSlotsById(1L)).thenReturn(Optional.of(3));
+        var engine = new SlotReservationEngine(repository, Clock.systemUTC(), IDLE);
+
+        int admitted = storm(engine, 1L, 20);
+
+        assertEquals(17, admitted);
+        assertEquals(20, engine.occupancy(1L));
+        verify(repository, times(1)).findOccupiedSlotsById(1L);
+    }
+
+    @Test
+    void activitiesAreIndependent() throws Exception {
+        var engine = new SlotReservationEngine(mock(ActivityRepository.class), Clock.systemUTC(), IDLE);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            long activityId = i % 2 == 0 ? 1L : 2L;
+            AtomicInteger counter = activityId == 1L ? first : second;
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (engine.tryReserve(activityId, 10)) {
+                    counter.incrementAndGet();
+                    engine.confirm(activityId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(10, first.get());
+        assertEquals(10, second.get());
+    }
+
+    @Test
+    void releasedReservationFreesTheSlot() {
+        var engine = new SlotReservationEngine(mock(ActivityRepository.class), Clock.systemUTC(), IDLE);
+
+        assertTrue(engine.tryReserve(1L, 1));
+        assertFalse(engine.tryReserve(1L, 1));
+
+        engine.release(1L);
+        assertTrue(engine.tryReserve(1L, 1));
+        engine.confirm(1L);
+
+        engine.free(1L);
+        assertEquals(0, engine.occupancy(1L));
+    }
+
+    @Test
+    void reconcileKeepsPendingReservations() {
+        var repository = mock(ActivityRepository.class);
+        when(repository.findOccupiedSlotsById(1L)).thenReturn(Optional.of(0));
+        when(repository.findAvailabilityByIdIn(any())).thenReturn(List.of(availability(1L, 5)));
+        var engine = new SlotReservationEngine(repository, Clock.systemUTC(), IDLE);
+
+        assertTrue(engine.tryReserve(1L, 10));
+        engine.reconcile();
+
+        assertEquals(6, engine.occupancy(1L));
+    }
+
+    @Test
+    void reconcileReadsEverySlotInOneQuery() {
+        var repository = mock(ActivityRepository.class);
+        when(repository.findOccupiedSlotsById(anyLong())).thenReturn(Optional.of(0));
+        when(repository.findAvailabilityByIdIn(any())).thenReturn(List.of(availability(1L, 1), availability(2L, 2), availability(3L, 3)));
+        var engine = new SlotReservationEngine(repository, Clock.systemUTC(), IDLE);
+        for (long id = 1; id <= 3; id++) {
+            engine.occupancy(id);
+        }
+
+        engine.reconcile();
+
+        verify(repository, times(1)).findAvailabilityByIdIn(any());
+        verify(repository, times(3)).findOccupiedSlotsById(anyLong());
+        assertEquals(1, engine.occupancy(1L));
+        assertEquals(3, engine.occupancy(3L));
+    }
+
+    // check-in já gravado no banco mas ainda não confirmado na hora da leitura: conta duas vezes
+    // só até a reconciliação rápida seguinte
+    @Test
+    void hotReconcileFixesACheckinCommittedButNotYetConfirmed() {
+        var repository = mock(ActivityRepository.class);
+        when(repository.findOccupiedSlotsById(1L)).thenReturn(Optional.of(0));
+        when(repository.findAvailabilityByIdIn(any())).thenReturn(List.of(availability(1L, 1)));
+        var engine = new SlotReservationEngine(repository, Clock.systemUTC(), IDLE);
+
+        assertTrue(engine.tryReserve(1L, 10));
+        engine.reconcile();
+        assertEquals(2, engine.occupancy(1L));
+
+        engine.confirm(1L);
+        engine.reconcileHot();
+        assertEquals(1, engine.occupancy(1L));
+
+        // sem reservas durante a última leitura o slot sai da reconciliação rápida
+        engine.reconcileHot();
+        verify(repository, times(2)).findAvailabilityByIdIn(any());
+    }
+
+    @Test
+    void idleSlotsLeaveTheMap() throws Exception {
+        var repository = mock(ActivityRepository.class);
+        when(repository.findOccupiedSlotsById(anyLong())).thenReturn(Optional.of(0));
+        var engine = new SlotReservationEngine(repository, Clock.systemUTC(), Duration.ofMillis(50));
+        engine.occupancy(1L);
+        assertEquals(1, engine.size());
+
+        Thread.sleep(100);
+        assertEquals(0, engine.size());
+        engine.reconcile();
+        verify(repository, never()).findAvailabilityByIdIn(any());
+    }
+
+    private static AvailabilityResponseDTO availability(Long activityId, int occupiedSlots) {
+        return new AvailabilityResponseDTO(activityId, "Spinning", 10, occupiedSlots);
+    }
+
+    private int storm(SlotReservationEngine engine, Long activityId, int limit) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (engine.tryReserve(activityId, limit)) {
+                    admitted.incrementAndGet();
+                    engine.confirm(activityId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return admitted.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.arianewelke.checkFit.infra.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuthenticationCacheTests {
+
+    private static final Instant NOW = Instant.parse("2026-01-10T10:00:00Z");
+    private static final AuthenticatedUser MEMBER = new AuthenticatedUser(1L, "member@checkfit.com", "Member");
+
+    @Test
+    void entriesExpireWithTheToken() {
+        var cache = new AuthenticationCache(10, Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.put("valid", MEMBER, NOW.plusSeconds(60));
+        cache.put("expired", MEMBER, NOW);
+
+        assertEquals(MEMBER, cache.get("valid"));
+        assertNull(cache.get("expired"));
+    }
+
+    @Test
+    void invalidatesEveryTokenOfTheUser() {
+        var cache = new AuthenticationCache(10, Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.put("first", MEMBER, NOW.plusSeconds(60));
+        cache.put("second", MEMBER, NOW.plusSeconds(60));
+        cache.put("other", new AuthenticatedUser(2L, "other@checkfit.com", "Other"), NOW.plusSeconds(60));
+
+        cache.invalidateUser(1L);
+
+        assertNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void staysWithinMaxSize() {
+        var cache = new AuthenticationCache(100, Clock.fixed(NOW, ZoneOffset.UTC));
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, MEMBER, NOW.plusSeconds(60));
+        }
+
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void entryExpiresWhenItsTokenDoesEvenIfOthersLiveLonger() {
+        var clock = new AtomicReference<>(NOW);
+        var cache = new AuthenticationCache(10, new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return clock.get();
+            }
+        });
+        cache.put("short", MEMBER, NOW.plusSeconds(60));
+        cache.put("long", MEMBER, NOW.plusSeconds(3600));
+
+        clock.set(NOW.plusSeconds(61));
+
+        assertNull(cache.get("short"));
+        assertEquals(MEMBER, cache.get("long"));
+        assertEquals(1, cache.size());
+    }
+}
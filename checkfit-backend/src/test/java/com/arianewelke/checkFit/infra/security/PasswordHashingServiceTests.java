@@ -0,0 +1,50 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.arianewelke.checkFit.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class PasswordHashingServiceTests {
+
+    @Test
+    void rejectsImmediatelyWhenPoolAndQueueAreFull() throws Exception {
+        var executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        var meterRegistry = new SimpleMeterRegistry();
+        var completion = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "completion"));
+        var service = new PasswordHashingService(new BCryptPasswordEncoder(4), mock(UserRepository.class), meterRegistry,
+                executor, completion);
+        var busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        var queued = service.encode("password1");
+        assertThrows(RejectedExecutionException.class, () -> service.encode("password2"));
+        // o que vem depois do hash não roda no pool de hashing
+        var continuedOn = queued.thenApply(hash -> Thread.currentThread().getName());
+
+        busy.countDown();
+        assertEquals("completion", continuedOn.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS).startsWith("$2a$04$"));
+        assertEquals(1, meterRegistry.get("checkfit.password.hashing").tag("operation", "encode").timer().count());
+        service.shutdown();
+        completion.shutdown();
+    }
+}
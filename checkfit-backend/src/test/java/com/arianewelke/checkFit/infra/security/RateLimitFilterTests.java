@@ -0,0 +1,223 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.arianewelke.checkFit.entity.User;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTests {
+
+    private static final Instant NOW = Instant.parse("2026-01-10T10:00:00Z");
+
+    private final MovingClock clock = new MovingClock();
+    private final AuthenticationCache authenticationCache = new AuthenticationCache(10, clock);
+    private final TokenService tokenService = new TokenService("test-secret-key", clock);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // login: 3 por minuto por IP e 2 falhas por minuto por conta e IP; check-in: 2 por minuto; proxy confiável em 10.9.0.0/16
+    private final RateLimitFilter filter = new RateLimitFilter(authenticationCache, tokenService, clock, registry, new ObjectMapper(), true, 4,
+            "X-Forwarded-For", List.of("10.9.0.0/16"), 3, Duration.ofMinutes(1), 2, Duration.ofMinutes(1),
+            5, Duration.ofMinutes(10), 2, Duration.ofMinutes(1));
+
+    @Test
+    void throttlesLoginPerIpWithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("POST", "/auth/login", "10.0.0.1", null).getStatus());
+        }
+        var throttled = perform("POST", "/auth/login", "10.0.0.1", null);
+        assertEquals(429, throttled.getStatus());
+        assertEquals("20", throttled.getHeader("Retry-After"));
+        assertEquals(1, registry.get("checkfit.http.rate-limit.rejections").counter().count());
+
+        // outro IP e outras rotas não são afetados
+        assertEquals(200, perform("POST", "/auth/login", "10.0.0.2", null).getStatus());
+        assertEquals(200, perform("GET", "/activity", "10.0.0.1", null).getStatus());
+
+        clock.advance(Duration.ofSeconds(20));
+        assertEquals(200, perform("POST", "/auth/login", "10.0.0.1", null).getStatus());
+        assertEquals(429, perform("POST", "/auth/login", "10.0.0.1", null).getStatus());
+    }
+
+    @Test
+    void countsCheckinsPerAuthenticatedUserBehindTheSameIp() throws Exception {
+        authenticationCache.put("first", new AuthenticatedUser(1L, "first@checkfit.com", "First"), NOW.plusSeconds(3600));
+        authenticationCache.put("second", new AuthenticatedUser(2L, "second@checkfit.com", "Second"), NOW.plusSeconds(3600));
+
+        assertEquals(200, perform("POST", "/checkin", "10.0.0.1", "first").getStatus());
+        assertEquals(200, perform("POST", "/checkin", "10.0.0.1", "first").getStatus());
+        assertEquals(429, perform("POST", "/checkin", "10.0.0.1", "first").getStatus());
+        assertEquals(200, perform("POST", "/checkin", "10.0.0.1", "second").getStatus());
+        // token inválido: conta pelo IP
+        assertEquals(200, perform("POST", "/checkin", "10.0.0.1", "unknown").getStatus());
+    }
+
+    @Test
+    void countsCheckinsByTheTokenSubjectEvenBeforeItIsCached() throws Exception {
+        // instância recém-subida: nenhum token no cache, todos os membros atrás do mesmo NAT
+        for (int member = 0; member < 3; member++) {
+            var token = tokenService.generateToken(new User("Member", "member" + member + "@checkfit.com", null, null,
+                    LocalDate.of(1990, 1, 1), null, LocalDateTime.now(clock)));
+            assertEquals(200, perform("POST", "/checkin", "10.0.0.1", token).getStatus());
+            assertEquals(200, perform("POST", "/checkin", "10.0.0.1", token).getStatus());
+            assertEquals(429, perform("POST", "/checkin", "10.0.0.1", token).getStatus());
+        }
+    }
+
+    @Test
+    void throttlesFailedLoginsPerAccountAndIpWithoutLockingOutTheOwner() throws Exception {
+        var body = "{\"email\": \"Member@CheckFit.com\", \"password\": \"wrong\"}";
+        FilterChain rejected = (request, response) -> ((HttpServletResponse) response).setStatus(400);
+        assertEquals(400, login("10.0.0.1", body, rejected).getStatus());
+        assertEquals(400, login("10.0.0.1", body.replace("Member@CheckFit.com", "member@checkfit.com"), rejected).getStatus());
+
+        var throttled = login("10.0.0.1", body, rejected);
+        assertEquals(429, throttled.getStatus());
+        assertEquals("30", throttled.getHeader("Retry-After"));
+        // o dono da conta, de outro endereço, entra normalmente; logins certos não consomem
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofSeconds(20));
+            assertEquals(200, login("10.0.0.2", body, new MockFilterChain()).getStatus());
+        }
+        // outra conta do mesmo IP segue
+        assertEquals(400, login("10.0.0.1", body.replace("Member", "other"), rejected).getStatus());
+    }
+
+    @Test
+    void keepsTheLoginBodyForTheControllerBlockingOrNot() throws Exception {
+        var body = "{\"email\": \"member@checkfit.com\", \"password\": \"secret123\"}";
+        var chain = new MockFilterChain();
+        login("10.0.0.1", body, chain);
+        assertEquals(body, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+        var async = new MockFilterChain();
+        login("10.0.0.1", body, async);
+        var input = async.getRequest().getInputStream();
+        var read = new ByteArrayOutputStream();
+        var completed = new boolean[1];
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws java.io.IOException {
+                while (input.isReady() && !input.isFinished()) {
+                    int value = input.read();
+                    if (value >= 0) {
+                        read.write(value);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                completed[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        });
+        assertTrue(completed[0]);
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsTheClientIpFromTheHeaderOnlyBehindATrustedProxy() {
+        var proxied = new MockHttpServletRequest("POST", "/auth/login");
+        proxied.setRemoteAddr("10.9.0.5");
+        proxied.addHeader("X-Forwarded-For", "203.0.113.9, 198.51.100.7, 10.9.0.4");
+        // o primeiro endereço vem do cliente e pode ser forjado; vale o último antes dos proxies confiáveis
+        assertEquals("198.51.100.7", filter.clientIp(proxied));
+
+        var direct = new MockHttpServletRequest("POST", "/auth/login");
+        direct.setRemoteAddr("198.51.100.20");
+        direct.addHeader("X-Forwarded-For", "203.0.113.9");
+        assertEquals("198.51.100.20", filter.clientIp(direct));
+    }
+
+    @Test
+    void keepsTheNumberOfBucketsBoundedWithoutResettingOtherClients() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("POST", "/auth/login", "10.0.0.1", null).getStatus());
+        }
+        for (int i = 0; i < 100; i++) {
+            perform("POST", "/auth/login", "10.0.1." + i, null);
+        }
+        assertEquals(4, filter.size());
+        // as chaves novas não tiram o balde de quem já estava no limite
+        assertEquals(429, perform("POST", "/auth/login", "10.0.0.1", null).getStatus());
+        assertEquals(429, perform("POST", "/auth/login", "10.0.2.1", null).getStatus());
+
+        // depois de um período todos os baldes voltaram a ficar cheios e dão lugar a chaves novas
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(200, perform("POST", "/auth/login", "10.0.2.1", null).getStatus());
+        assertEquals(1, filter.size());
+        clock.advance(Duration.ofMinutes(1));
+        filter.evictIdle();
+        assertEquals(0, filter.size());
+    }
+
+    private MockHttpServletResponse login(String ip, String body, FilterChain chain) throws Exception {
+        var request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setServletPath("/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String ip, String token) throws Exception {
+        var request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(ip);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static final class MovingClock extends Clock {
+
+        private Instant now = NOW;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.arianewelke.checkFit.infra.security;
+
+import com.arianewelke.checkFit.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TokenServiceTests {
+
+    private static final Instant NOW = Instant.parse("2025-03-03T10:00:00Z");
+
+    @Test
+    void tokenExpiresTwoHoursAfterIssueOnTheInjectedClock() {
+        var user = new User("Member", "member@checkfit.com", "11999999999", "11111111111", LocalDate.of(1990, 1, 1), "password", LocalDateTime.now());
+        var token = new TokenService("secret", Clock.fixed(NOW, ZoneOffset.UTC)).generateToken(user);
+
+        var almostExpired = new TokenService("secret", Clock.fixed(NOW.plus(Duration.ofMinutes(119)), ZoneOffset.UTC));
+        var expired = new TokenService("secret", Clock.fixed(NOW.plus(Duration.ofMinutes(121)), ZoneOffset.UTC));
+
+        assertEquals("member@checkfit.com", almostExpired.validateToken(token));
+        assertNull(expired.validateToken(token));
+    }
+}
@@ -0,0 +1,223 @@
+package com.arianewelke.checkFit.infra.stream;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// o flush automático fica desligado para que o teste decida quando as mudanças são enviadas
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "api.activity.stream.flush-ms=3600000")
+class ActivityOccupancyStreamTests {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ActivityOccupancyStream occupancyStream;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private CheckinRepository checkinRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() {
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void coalescesCheckinsIntoOneEventPerFlush() throws Exception {
+        var start = LocalDateTime.now().plusHours(2);
+        var activity = activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", 10));
+        var subscriber = user("00000000000");
+
+        var stream = httpClient.send(HttpRequest.newBuilder(uri("/activity/stream?ticket=" + ticket(subscriber))).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, stream.statusCode());
+        assertTrue(occupancyStream.subscriberCount() >= 1);
+
+        for (String document : new String[]{"11111111111", "22222222222", "33333333333"}) {
+            var response = httpClient.send(HttpRequest.newBuilder(uri("/checkin?history=false"))
+                    .header("Authorization", "Bearer " + tokenService.generateToken(user(document)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"idActivity\": " + activity.getId() + "}"))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            assertEquals(200, response.statusCode());
+        }
+        occupancyStream.flush();
+
+        var lines = stream.body().iterator();
+        var event = CompletableFuture.supplyAsync(() -> {
+            var name = "";
+            while (lines.hasNext()) {
+                var line = lines.next();
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("data:")) {
+                    return name + " " + line.substring("data:".length());
+                }
+            }
+            return "";
+        }).get(10, TimeUnit.SECONDS);
+        stream.body().close();
+
+        assertTrue(event.startsWith(ActivityOccupancyStream.EVENT + " [{\"activityId\":" + activity.getId() + ","), event);
+        assertTrue(event.contains("\"occupiedSlots\":3,\"availableSlots\":7}]"), event);
+    }
+
+    @Test
+    void requiresAToken() throws Exception {
+        var response = httpClient.send(HttpRequest.newBuilder(uri("/activity/stream")).build(), HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(403, response.statusCode());
+    }
+
+    @Test
+    void acceptsEachTicketOnceAndNeverTheJwtInTheQueryString() throws Exception {
+        var member = user("44444444444");
+        var ticket = ticket(member);
+
+        var first = httpClient.send(HttpRequest.newBuilder(uri("/activity/stream?ticket=" + ticket)).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, first.statusCode());
+        first.body().close();
+
+        assertEquals(403, httpClient.send(HttpRequest.newBuilder(uri("/activity/stream?ticket=" + ticket)).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(403, httpClient.send(HttpRequest.newBuilder(uri("/activity/stream?token=" + tokenService.generateToken(member))).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    // um cliente que parou de ler não pode segurar os envios dos outros
+    @Test
+    void dropsStalledSubscriberAndKeepsSendingToTheOthers() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var stream = new ActivityOccupancyStream(null, new ObjectMapper(), registry, Duration.ofMinutes(30), Duration.ofSeconds(3),
+                16, 1, Duration.ofMillis(100), 4);
+        var stalled = new StalledEmitter();
+        var healthy = new RecordingEmitter();
+        stream.subscribe(stalled);
+        stream.subscribe(healthy);
+        stalled.stall();
+
+        // a única thread de envio fica presa no primeiro inscrito
+        stream.heartbeat();
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(1, healthy.sent.getCount());
+
+        stream.dropStalled();
+        assertTrue(healthy.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, stream.subscriberCount());
+        assertEquals(1, registry.get("checkfit.activity.stream.dropped").counter().count());
+        assertEquals(1, registry.get("checkfit.activity.stream.stalled.senders").gauge().value());
+        assertFalse(stalled.completed.await(100, TimeUnit.MILLISECONDS));
+
+        // quando o envio travado volta, a própria thread completa o emitter e devolve a thread extra
+        stalled.release.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.get("checkfit.activity.stream.stalled.senders").gauge().value() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, registry.get("checkfit.activity.stream.stalled.senders").gauge().value());
+        stream.shutdown();
+    }
+
+    private String ticket(User member) throws Exception {
+        var response = httpClient.send(HttpRequest.newBuilder(uri("/activity/stream/ticket"))
+                .header("Authorization", "Bearer " + tokenService.generateToken(member))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        var matcher = Pattern.compile("\"ticket\":\"([^\"]+)\"").matcher(response.body());
+        assertTrue(matcher.find(), response.body());
+        return matcher.group(1);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private User user(String document) {
+        return userRepository.save(new User("Member " + document, document + "@checkfit.com", document, document,
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+    }
+
+    // o envio da inscrição não passa por aqui; só os do feed
+    private static class RecordingEmitter extends SseEmitter {
+
+        final CountDownLatch sent = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            sent.countDown();
+        }
+    }
+
+    // depois de stall() todo envio fica parado até release, como um cliente que não lê mais o socket
+    private static class StalledEmitter extends SseEmitter {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean stalled;
+
+        void stall() {
+            stalled = true;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            if (!stalled) {
+                return;
+            }
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.arianewelke.checkFit.infra.uniqueness;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+    private static final int INSERTIONS = 100_000;
+
+    @Test
+    void neverReportsAnInsertedValueAsMissing() {
+        var filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("member" + i + "@checkfit.com");
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("member" + i + "@checkfit.com"));
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        var filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add(String.format("%011d", i));
+        }
+
+        int falsePositives = 0;
+        for (int i = INSERTIONS; i < INSERTIONS * 2; i++) {
+            if (filter.mightContain(String.format("%011d", i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < INSERTIONS * 0.02, "false positives: " + falsePositives);
+    }
+}
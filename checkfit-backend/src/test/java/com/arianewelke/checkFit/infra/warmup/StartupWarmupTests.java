@@ -0,0 +1,61 @@
+package com.arianewelke.checkFit.infra.warmup;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// sobe como o perfil prod: schema só das migrações, Hibernate em validate e aquecimento antes do readiness
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        // dialeto do MySQL sobre o H2 em modo MySQL: valida o schema como em produção (sequência em tabela, enum)
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "api.warmup.enabled=true",
+        "api.warmup.iterations=5"
+})
+class StartupWarmupTests {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private ApplicationAvailability availability;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private CheckinRepository checkinRepository;
+
+    @Test
+    void migratesValidatesAndWarmsUpWithoutLeavingData() {
+        // o contexto só sobe se as entidades baterem com o schema das migrações
+        assertEquals(2, flyway.info().applied().length);
+
+        assertEquals(5, meterRegistry.get("checkfit.warmup.iteration").timer().count());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertEquals(0, userRepository.count());
+        assertEquals(0, activityRepository.count());
+        assertEquals(0, checkinRepository.count());
+
+        var now = LocalDateTime.now();
+        var activity = activityRepository.save(new Activity(now.plusDays(1), now.plusDays(1).plusHours(1), "Spinning", 10));
+        assertTrue(activity.getId() > 0);
+        activityRepository.delete(activity);
+    }
+}
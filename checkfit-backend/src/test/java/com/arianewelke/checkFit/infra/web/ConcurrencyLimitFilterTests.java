@@ -0,0 +1,70 @@
+package com.arianewelke.checkFit.infra.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTests {
+
+    @Test
+    void rejectsRequestsBeyondTheLimitAndReleasesPermits() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var filter = new ConcurrencyLimitFilter(registry, 1, Duration.ofMillis(50));
+        var entered = new CountDownLatch(1);
+        var finish = new CountDownLatch(1);
+
+        var first = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("POST", "/checkin"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            entered.countDown();
+                            await(finish);
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/checkin"), rejected, new MockFilterChain());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1, registry.get("checkfit.http.concurrency.rejections").counter().count());
+
+        finish.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        var accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/checkin"), accepted, new MockFilterChain());
+        assertEquals(200, accepted.getStatus());
+    }
+
+    @Test
+    void doesNothingWhenUnlimited() throws Exception {
+        var filter = new ConcurrencyLimitFilter(new SimpleMeterRegistry(), 0, Duration.ZERO);
+        var chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/activity"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.dto.RecurringActivityRequestDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleRequestDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.schedule.ActivityIntervalIndex;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.service.interfaces.ActivityService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ActivityServiceImpTests {
+
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ActivityIntervalIndex intervalIndex;
+
+    @AfterEach
+    void cleanUp() {
+        activityRepository.deleteAll();
+        intervalIndex.reload();
+    }
+
+    @Test
+    void findsAvailabilityOfAllActivitiesInOneCall() {
+        var start = LocalDateTime.now().plusDays(1);
+        var full = activity(start, 2, 2);
+        var open = activity(start.plusHours(2), 10, 3);
+
+        var availability = activityService.findAvailability(null, null, null);
+
+        assertEquals(List.of(
+                new AvailabilityResponseDTO(full.getId(), "Spinning", 2, 2, 0),
+                new AvailabilityResponseDTO(open.getId(), "Spinning", 10, 3, 7)
+        ), availability);
+    }
+
+    @Test
+    void availabilityWithoutIdsOrWindowOnlyCoversTheComingMonth() {
+        var now = LocalDateTime.now();
+        activity(now.minusDays(1), 5, 0);
+        var upcoming = activity(now.plusDays(1), 5, 0);
+        activity(now.plusDays(40), 5, 0);
+
+        assertEquals(List.of(upcoming.getId()), ids(activityService.findAvailability(null, null, null)));
+        assertEquals(1L, activityService.findAvailabilityVersion(null, null, null).activities());
+        var tooWide = assertThrows(BusinessExceptions.class, () -> activityService.findAvailability(null, now, now.plusDays(60)));
+        assertEquals("The availability window can span at most 31 days", tooWide.getMessage());
+    }
+
+    @Test
+    void filtersAvailabilityByIdsAndWindow() {
+        var start = LocalDateTime.now().plusDays(1);
+        var first = activity(start, 5, 0);
+        var second = activity(start.plusDays(2), 5, 1);
+
+        assertEquals(List.of(second.getId()), ids(activityService.findAvailability(List.of(second.getId()), null, null)));
+        assertEquals(List.of(first.getId()), ids(activityService.findAvailability(null, start.minusHours(1), start.plusDays(1))));
+        assertEquals(List.of(second.getId()), ids(activityService.findAvailability(null, start.plusDays(1), null)));
+    }
+
+    @Test
+    void servesScheduleFromCacheUntilAWriteEvictsIt() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var activity = activity(LocalDateTime.now().plusDays(1), 5, 0);
+        activityService.findAll();
+        activityService.findById(activity.getId());
+
+        statistics.clear();
+        activityService.findAll();
+        activityService.findById(activity.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        var changed = new Activity(activity.getStartTime(), activity.getFinishTime(), "Yoga", 8);
+        activityService.update(activity.getId(), changed);
+
+        assertEquals("Yoga", activityService.findById(activity.getId()).map(ActivityResponseDTO::description).orElseThrow());
+        assertEquals(List.of(8), activityService.findAll().stream().map(ActivityResponseDTO::limitPeople).toList());
+
+        activityService.delete(activity.getId());
+        assertTrue(activityService.findById(activity.getId()).isEmpty());
+        assertTrue(activityService.findAll().isEmpty());
+    }
+
+    @Test
+    void listsOnlyUnfinishedActivitiesAndPagesTheScheduleByStartTime() {
+        var now = LocalDateTime.now();
+        var finished = activityService.save(new Activity(now.minusHours(3), now.minusHours(2), "Finished", 5));
+        var running = activityService.save(new Activity(now.minusMinutes(30), now.plusMinutes(30), "Running", 5));
+        var tomorrow = activityService.save(new Activity(now.plusDays(1), now.plusDays(1).plusHours(1), "Tomorrow", 5));
+        var later = activityService.save(new Activity(now.plusHours(2), now.plusHours(3), "Later", 5));
+
+        assertEquals(List.of(running.getId(), later.getId(), tomorrow.getId()), scheduleIds(activityService.findAll()));
+        assertEquals(List.of(running.getId()), scheduleIds(activityService.findOpenNow()));
+
+        var first = activityService.findSchedule(now.minusDays(1), null, null, null, 2);
+        var second = activityService.findSchedule(null, null, first.nextStartTime(), first.nextId(), 2);
+        assertEquals(List.of(finished.getId(), running.getId()), scheduleIds(first.items()));
+        assertEquals(List.of(later.getId(), tomorrow.getId()), scheduleIds(second.items()));
+        assertNull(second.nextId());
+
+        var upcoming = activityService.findSchedule(null, now.plusHours(12), null, null, 10);
+        assertEquals(List.of(later.getId()), scheduleIds(upcoming.items()));
+    }
+
+    @Test
+    void expandsRecurringActivitiesWithBatchedInserts() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        var schedule = new RecurringScheduleRequestDTO(monday, monday.plusWeeks(4).minusDays(1), List.of(
+                new RecurringActivityRequestDTO("Spinning", Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+                        LocalTime.of(7, 0), LocalTime.of(8, 0), 20),
+                new RecurringActivityRequestDTO("Yoga", Set.of(DayOfWeek.SATURDAY), LocalTime.of(9, 0), LocalTime.of(10, 0), 12)));
+
+        statistics.clear();
+        var created = activityService.createRecurring(schedule);
+
+        assertEquals(16, created.created());
+        assertEquals(monday.atTime(7, 0), created.firstStartTime());
+        assertEquals(monday.plusWeeks(3).plusDays(5).atTime(9, 0), created.lastStartTime());
+        // um lote de inserts (+ no máximo um novo bloco da sequência), não um insert por aula
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+        assertEquals(16, activityService.findAll().size());
+
+        var invalid = new RecurringScheduleRequestDTO(monday, monday.minusDays(1), schedule.activities());
+        var exception = assertThrows(BusinessExceptions.class, () -> activityService.createRecurring(invalid));
+        assertEquals("endDate must not be before startDate", exception.getMessage());
+    }
+
+    private List<Long> scheduleIds(List<ActivityResponseDTO> schedule) {
+        return schedule.stream().map(ActivityResponseDTO::id).toList();
+    }
+
+    private Activity activity(LocalDateTime start, int limitPeople, int occupiedSlots) {
+        var activity = new Activity(start, start.plusHours(1), "Spinning", limitPeople);
+        activity.setOccupiedSlots(occupiedSlots);
+        return activityRepository.save(activity);
+    }
+
+    private List<Long> ids(List<AvailabilityResponseDTO> availability) {
+        return availability.stream().map(AvailabilityResponseDTO::activityId).toList();
+    }
+}
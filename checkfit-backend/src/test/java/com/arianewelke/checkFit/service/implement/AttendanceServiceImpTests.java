@@ -0,0 +1,121 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.AttendanceDTO;
+import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.analytics.AttendanceCounters;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.service.interfaces.AttendanceService;
+import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "api.analytics.rebuild.chunk-size=2")
+class AttendanceServiceImpTests {
+
+    @Autowired
+    private AttendanceService attendanceService;
+    @Autowired
+    private AttendanceCounters attendanceCounters;
+    @Autowired
+    private CheckinService checkinService;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private CheckinRepository checkinRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // zera o que os outros testes deixaram nos contadores
+        attendanceService.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void countsCheckinsAndCancellationsIncrementally() {
+        var activity = activity(LocalDateTime.now().plusHours(2));
+        var first = user("11111111111");
+        var second = user("22222222222");
+        loginAs(first);
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+        loginAs(second);
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+
+        assertEquals(2, attendanceService.byActivity(activity.getId()).checkins());
+        assertEquals(1, attendanceService.byMember(first.getId()).checkins());
+        var weekday = activity.getStartTime().getDayOfWeek().name();
+        assertEquals(2, byBucket(attendanceService.byWeekday(), weekday));
+
+        checkinService.delete(checkinRepository.findAll().get(0).getId());
+        assertEquals(1, attendanceService.byActivity(activity.getId()).checkins());
+
+        attendanceCounters.flush();
+        assertEquals(1L, jdbcTemplate.queryForObject("select checkins from attendance_summary where dimension = 'ACTIVITY' and bucket = ?",
+                Long.class, String.valueOf(activity.getId())));
+    }
+
+    @Test
+    void rebuildRecomputesFromRawCheckinsInChunks() {
+        var member = user("11111111111");
+        var start = LocalDateTime.of(2025, 3, 3, 7, 0);
+        for (int week = 0; week < 6; week++) {
+            // escrito direto no banco, sem passar pelos contadores
+            var activity = activity(start.plusWeeks(week));
+            checkinRepository.save(new Checkin(member, activity, activity.getStartTime()));
+        }
+
+        assertEquals(0, attendanceService.byMember(member.getId()).checkins());
+        attendanceService.rebuild();
+
+        assertEquals(6, attendanceService.byMember(member.getId()).checkins());
+        assertEquals(6, byBucket(attendanceService.byWeekday(), "MONDAY"));
+        assertEquals(List.of(new AttendanceDTO("2025-02", 0), new AttendanceDTO("2025-03", 5), new AttendanceDTO("2025-04", 1)),
+                attendanceService.byMonth(YearMonth.of(2025, 2), YearMonth.of(2025, 4)));
+    }
+
+    private long byBucket(List<AttendanceDTO> counts, String bucket) {
+        return counts.stream().filter(count -> count.bucket().equals(bucket)).findFirst().orElseThrow().checkins();
+    }
+
+    private Activity activity(LocalDateTime start) {
+        return activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", 5));
+    }
+
+    private User user(String document) {
+        return userRepository.save(new User("Member " + document, document + "@checkfit.com", document, document,
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+    }
+
+    private void loginAs(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, List.of()));
+    }
+}
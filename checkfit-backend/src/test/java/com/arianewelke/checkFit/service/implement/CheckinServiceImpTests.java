@@ -0,0 +1,197 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.CheckinHistoryPageDTO;
+import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.dto.CheckinResponseDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.service.interfaces.ActivityService;
+import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CheckinServiceImpTests {
+
+    @Autowired
+    private CheckinService checkinService;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private CheckinRepository checkinRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rejectsWhenActivityIsFull() {
+        var activity = activity(1, 2);
+        loginAs(user("11111111111"));
+        checkinService.save(new CheckinRequestDTO(activity.getId()), true);
+
+        loginAs(user("22222222222"));
+        var exception = assertThrows(BusinessExceptions.class, () -> checkinService.save(new CheckinRequestDTO(activity.getId()), true));
+
+        assertEquals("Check-in unavailable. This activity is full", exception.getMessage());
+        assertEquals(1, occupiedSlots(activity));
+    }
+
+    @Test
+    void rejectsSecondCheckinInSameActivity() {
+        var activity = activity(5, 2);
+        loginAs(user("11111111111"));
+        checkinService.save(new CheckinRequestDTO(activity.getId()), true);
+
+        var exception = assertThrows(BusinessExceptions.class, () -> checkinService.save(new CheckinRequestDTO(activity.getId()), true));
+
+        assertEquals("User has already checked in this activity", exception.getMessage());
+        assertEquals(1, occupiedSlots(activity));
+    }
+
+    @Test
+    void rejectsSecondCheckinOnSameDay() {
+        var first = activity(5, 2);
+        var second = activity(5, 3);
+        loginAs(user("11111111111"));
+        checkinService.save(new CheckinRequestDTO(first.getId()), true);
+
+        var exception = assertThrows(BusinessExceptions.class, () -> checkinService.save(new CheckinRequestDTO(second.getId()), true));
+
+        assertEquals("User has already checked today", exception.getMessage());
+        assertEquals(0, occupiedSlots(second));
+    }
+
+    @Test
+    void rejectsFinishedActivity() {
+        var activity = activityRepository.save(new Activity(LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1), "Yoga", 5));
+        loginAs(user("11111111111"));
+
+        var exception = assertThrows(BusinessExceptions.class, () -> checkinService.save(new CheckinRequestDTO(activity.getId()), true));
+
+        assertEquals("Unable to check in to an activity that has already finished", exception.getMessage());
+    }
+
+    @Test
+    void deleteFreesTheSlot() {
+        var activity = activity(1, 2);
+        loginAs(user("11111111111"));
+        checkinService.save(new CheckinRequestDTO(activity.getId()), true);
+
+        checkinService.delete(checkinRepository.findAll().get(0).getId());
+
+        assertEquals(0, occupiedSlots(activity));
+        loginAs(user("22222222222"));
+        checkinService.save(new CheckinRequestDTO(activity.getId()), true);
+        assertEquals(1, occupiedSlots(activity));
+    }
+
+    @Test
+    void editDoesNotOverwriteSlotTakenByConcurrentCheckin() {
+        var activity = activity(5, 2);
+        var member = user("11111111111");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // a edição já carregou a atividade (0 vagas ocupadas) quando o check-in confirma em outra thread
+            activityRepository.findById(activity.getId()).orElseThrow();
+            CompletableFuture.runAsync(() -> {
+                loginAs(member);
+                try {
+                    checkinService.save(new CheckinRequestDTO(activity.getId()), true);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }).join();
+            activityService.update(activity.getId(), new Activity(activity.getStartTime(), activity.getFinishTime(), "Yoga", 5));
+        });
+
+        assertEquals(1, occupiedSlots(activity));
+        assertEquals("Yoga", activityRepository.findById(activity.getId()).orElseThrow().getDescription());
+    }
+
+    @Test
+    void pagesHistoryByCursor() {
+        var user = user("11111111111");
+        var start = LocalDateTime.now().minusDays(30);
+        for (int day = 0; day < 5; day++) {
+            var activity = activityRepository.save(new Activity(start.plusDays(day), start.plusDays(day).plusHours(1), "Day " + day, 5));
+            var checkin = new Checkin(user, activity, start.plusDays(day));
+            checkinRepository.save(checkin);
+        }
+        loginAs(user);
+
+        var first = checkinService.findHistory(null, null, 2);
+        var second = checkinService.findHistory(first.nextCheckinTime(), first.nextId(), 2);
+        var last = checkinService.findHistory(second.nextCheckinTime(), second.nextId(), 2);
+
+        assertEquals(List.of("Day 4", "Day 3"), descriptions(first));
+        assertEquals(List.of("Day 2", "Day 1"), descriptions(second));
+        assertEquals(List.of("Day 0"), descriptions(last));
+        assertNull(last.nextId());
+    }
+
+    @Test
+    void saveReturnsOnlyRecentHistoryOrNone() {
+        var activity = activity(5, 2);
+        loginAs(user("11111111111"));
+
+        var response = checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+
+        assertEquals("Spinning", response.current().description());
+        assertTrue(response.history().isEmpty());
+    }
+
+    private List<String> descriptions(CheckinHistoryPageDTO page) {
+        return page.items().stream().map(CheckinResponseDTO::description).toList();
+    }
+
+    private Activity activity(int limitPeople, int startsInHours) {
+        var start = LocalDateTime.now().plusHours(startsInHours);
+        return activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", limitPeople));
+    }
+
+    private User user(String document) {
+        return userRepository.save(new User("Member " + document, document + "@checkfit.com", document, document,
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+    }
+
+    private int occupiedSlots(Activity activity) {
+        return activityRepository.findOccupiedSlotsById(activity.getId()).orElseThrow();
+    }
+
+    private void loginAs(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, List.of()));
+    }
+}
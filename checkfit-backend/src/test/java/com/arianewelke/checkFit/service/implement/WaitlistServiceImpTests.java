@@ -0,0 +1,190 @@
+package com.arianewelke.checkFit.service.implement;
+
+import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.CheckinRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.repository.WaitlistRepository;
+import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import com.arianewelke.checkFit.service.interfaces.WaitlistService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+class WaitlistServiceImpTests {
+
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private CheckinService checkinService;
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    // permite simular o check-in que chega entre a consulta da promoção e o insert
+    @MockitoSpyBean
+    private CheckinRepository checkinRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        waitlistRepository.deleteAll();
+        checkinRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void joinsOnlyFullActivitiesInArrivalOrder() {
+        var activity = activity(1, 2);
+        loginAs(user("11111111111"));
+        var exception = assertThrows(BusinessExceptions.class, () -> waitlistService.join(activity.getId()));
+        assertEquals("This activity still has slots available, check in instead", exception.getMessage());
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+
+        var first = user("22222222222");
+        loginAs(first);
+        assertEquals(1, waitlistService.join(activity.getId()).position());
+        exception = assertThrows(BusinessExceptions.class, () -> waitlistService.join(activity.getId()));
+        assertEquals("User is already on the waitlist for this activity", exception.getMessage());
+
+        var second = user("33333333333");
+        loginAs(second);
+        assertEquals(2, waitlistService.join(activity.getId()).position());
+
+        loginAs(first);
+        waitlistService.leave(activity.getId());
+        assertEquals(0, waitlistService.position(activity.getId()).position());
+        loginAs(second);
+        assertEquals(1, waitlistService.position(activity.getId()).position());
+    }
+
+    @Test
+    void cancellationHandsTheSlotToTheHeadOfTheQueue() {
+        var activity = activity(1, 2);
+        var other = activity(5, 3);
+        loginAs(user("11111111111"));
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+        var first = user("22222222222");
+        loginAs(first);
+        waitlistService.join(activity.getId());
+        var second = user("33333333333");
+        loginAs(second);
+        waitlistService.join(activity.getId());
+        // o primeiro da fila fez check-in em outra aula no mesmo dia: perde a vez
+        loginAs(first);
+        checkinService.save(new CheckinRequestDTO(other.getId()), false);
+
+        checkinService.delete(checkinIn(activity).get(0).getId());
+
+        assertEquals(1, activityRepository.findOccupiedSlotsById(activity.getId()).orElseThrow());
+        assertEquals(List.of(second.getId()), checkinIn(activity).stream().map(checkin -> checkin.getUser().getId()).toList());
+        assertEquals(0, waitlistRepository.count());
+    }
+
+    @Test
+    void joinTellsAlreadyInThisActivityApartFromAlreadyToday() {
+        var activity = activity(1, 2);
+        var other = activity(1, 3);
+        var member = user("11111111111");
+        loginAs(member);
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+        loginAs(user("22222222222"));
+        checkinService.save(new CheckinRequestDTO(other.getId()), false);
+
+        loginAs(member);
+        var exception = assertThrows(BusinessExceptions.class, () -> waitlistService.join(activity.getId()));
+        assertEquals("User has already checked in this activity", exception.getMessage());
+        exception = assertThrows(BusinessExceptions.class, () -> waitlistService.join(other.getId()));
+        assertEquals("User has already checked today", exception.getMessage());
+    }
+
+    @Test
+    void promotionSkipsMemberWhoseCheckinRacedTheInsertAndKeepsTheCancellation() {
+        var activity = activity(1, 2);
+        var other = activity(5, 3);
+        var holder = user("11111111111");
+        loginAs(holder);
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+        var first = user("22222222222");
+        loginAs(first);
+        waitlistService.join(activity.getId());
+        var second = user("33333333333");
+        loginAs(second);
+        waitlistService.join(activity.getId());
+        loginAs(first);
+        checkinService.save(new CheckinRequestDTO(other.getId()), false);
+        // a consulta da promoção ainda não enxerga esse check-in: só a constraint do insert recusa
+        doReturn(false).when(checkinRepository).existsForActivityOrDay(eq(first.getId()), any(), any());
+
+        checkinService.delete(checkinIn(activity).get(0).getId());
+
+        assertEquals(1, activityRepository.findOccupiedSlotsById(activity.getId()).orElseThrow());
+        assertEquals(List.of(second.getId()), checkinIn(activity).stream().map(checkin -> checkin.getUser().getId()).toList());
+        assertEquals(0, waitlistRepository.count());
+    }
+
+    @Test
+    void promotionKeepsTheHeadWhenTheSlotCannotBeReserved() {
+        var activity = activity(1, 2);
+        loginAs(user("11111111111"));
+        checkinService.save(new CheckinRequestDTO(activity.getId()), false);
+        var head = user("22222222222");
+        loginAs(head);
+        waitlistService.join(activity.getId());
+        activityRepository.releaseSlot(activity.getId(), LocalDateTime.now());
+
+        // a aula já terminou: o reserveSlot recusa e ninguém perde o lugar na fila
+        var afterFinish = activity.getFinishTime().plusMinutes(1);
+        Boolean promoted = new TransactionTemplate(transactionManager).execute(status -> waitlistService.promoteNext(activity.getId(), afterFinish));
+        assertFalse(promoted);
+        assertEquals(1, waitlistService.position(activity.getId()).position());
+    }
+
+    private List<Checkin> checkinIn(Activity activity) {
+        return checkinRepository.findAll().stream()
+                .filter(checkin -> checkin.getActivity().getId().equals(activity.getId()))
+                .toList();
+    }
+
+    private Activity activity(int limitPeople, int startsInHours) {
+        var start = LocalDateTime.now().plusHours(startsInHours);
+        return activityRepository.save(new Activity(start, start.plusHours(1), "Spinning", limitPeople));
+    }
+
+    private User user(String document) {
+        return userRepository.save(new User("Member " + document, document + "@checkfit.com", document, document,
+                LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+    }
+
+    private void loginAs(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, List.of()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compara dois resultados JSON do JMH (-rf json). Sai com código 1 se algum benchmark piorou
+// mais que o limite (throughput menor, ou tempo médio/amostrado maior) e a diferença ficou fora
+// dos intervalos de confiança somados (scoreError de cada lado, 99,9%): uma mudança dentro do
+// ruído da medição não reprova, por maior que seja.
+public final class BaselineComparator {
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparator <baseline.json> <result.json> [threshold]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path resultPath = Path.of(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        if (!Files.exists(baselinePath)) {
+            System.out.println("No baseline at " + baselinePath + "; copy " + resultPath + " there to record one.");
+            return;
+        }
+
+        var baseline = read(baselinePath);
+        var result = read(resultPath);
+        int regressions = 0;
+        for (var entry : result.entrySet()) {
+            Score current = entry.getValue();
+            Score previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-90s %12.3f %-8s (new)%n", entry.getKey(), current.score, current.unit);
+                continue;
+            }
+            double change = (current.score - previous.score) / previous.score;
+            boolean beyondThreshold = current.higherIsBetter() ? change < -threshold : change > threshold;
+            boolean beyondNoise = Math.abs(current.score - previous.score) > previous.error() + current.error();
+            boolean worse = beyondThreshold && beyondNoise;
+            if (worse) {
+                regressions++;
+            }
+            System.out.printf("%-90s %12.3f +- %-10.3f -> %12.3f +- %-10.3f %-8s %+7.1f%%%s%n", entry.getKey(),
+                    previous.score, previous.error(), current.score, current.error(), current.unit, change * 100,
+                    worse ? "  REGRESSION" : beyondThreshold ? "  (within noise)" : "");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed more than " + Math.round(threshold * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            var params = new TreeMap<String, String>();
+            run.path("params").properties().forEach(p -> params.put(p.getKey(), p.getValue().asText()));
+            String mode = run.path("mode").asText();
+            String key = run.path("benchmark").asText() + (params.isEmpty() ? "" : params.toString()) + " [" + mode + "]";
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(key, new Score(mode, metric.path("score").asDouble(), metric.path("scoreError").asDouble(Double.NaN),
+                    metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    // scoreError é NaN com uma iteração só; sem erro conhecido vale só o limite
+    private record Score(String mode, double score, double scoreError, String unit) {
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+
+        double error() {
+            return Double.isNaN(scoreError) ? 0 : scoreError;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.CheckFitApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Clock;
+import java.util.UUID;
+
+// sobe a aplicação inteira contra um H2 em memória no modo MySQL, como nos testes do backend
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        return start(null, extraArgs);
+    }
+
+    // com um relógio próprio, registrado antes do ClockConfig da aplicação
+    static ConfigurableApplicationContext start(Clock clock, String... extraArgs) {
+        String[] defaults = {
+                "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                // as migrações são escritas para o MySQL; no H2 o schema vem das entidades
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--logging.level.root=WARN",
+                "--api.security.token.secret=benchmark-secret",
+                "--api.security.bcrypt.strength=4",
+                // todos os clientes saem do mesmo IP; o limite de taxa mediria a si mesmo
+                "--api.rate-limit.enabled=false"
+        };
+        String[] args = new String[defaults.length + extraArgs.length];
+        System.arraycopy(defaults, 0, args, 0, defaults.length);
+        System.arraycopy(extraArgs, 0, args, defaults.length, extraArgs.length);
+        var builder = new SpringApplicationBuilder(CheckFitApplication.class);
+        if (clock != null) {
+            builder.initializers(context -> context.getBeanFactory().registerSingleton("clock", clock));
+        }
+        return builder.run(args);
+    }
+}
@@ -0,0 +1,117 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.dto.CheckinRequestDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.exceptions.BusinessExceptions;
+import com.arianewelke.checkFit.infra.reservation.SlotReservationEngine;
+import com.arianewelke.checkFit.infra.security.AuthenticatedUser;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.arianewelke.checkFit.repository.UserRepository;
+import com.arianewelke.checkFit.service.interfaces.CheckinService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CheckinServiceImp.save contra H2: o caminho aceito (update condicional + insert) e a recusa por lotação
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CheckinSaveBenchmark {
+
+    // cada membro faz um check-in por dia, então o caminho aceito precisa de um membro novo por chamada
+    private static final int MEMBERS = 20_000;
+
+    private ConfigurableApplicationContext context;
+    private CheckinService checkinService;
+    private SlotReservationEngine reservationEngine;
+    private JdbcTemplate jdbcTemplate;
+    private List<AuthenticatedUser> members;
+    private CheckinRequestDTO openActivity;
+    private CheckinRequestDTO fullActivity;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        checkinService = context.getBean(CheckinService.class);
+        reservationEngine = context.getBean(SlotReservationEngine.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        var userRepository = context.getBean(UserRepository.class);
+        var activityRepository = context.getBean(ActivityRepository.class);
+
+        var users = new ArrayList<User>();
+        for (int i = 0; i < MEMBERS; i++) {
+            String document = String.format("%011d", i);
+            users.add(new User("Member " + i, document + "@checkfit.com", document, document, LocalDate.of(1990, 1, 1), "password", LocalDateTime.now()));
+        }
+        members = userRepository.saveAll(users).stream().map(AuthenticatedUser::of).toList();
+
+        var start = LocalDateTime.now().plusHours(1);
+        openActivity = new CheckinRequestDTO(activityRepository.save(new Activity(start, start.plusHours(1), "Open", MEMBERS * 10)).getId());
+        fullActivity = new CheckinRequestDTO(activityRepository.save(new Activity(start, start.plusHours(1), "Full", 1)).getId());
+        loginAs(members.get(0));
+        checkinService.save(fullActivity, false);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetOpenActivity() {
+        jdbcTemplate.update("delete from checkin where activity_id = ?", openActivity.idActivity());
+        jdbcTemplate.update("update activity set occupied_slots = 0 where id = ?", openActivity.idActivity());
+        reservationEngine.evict(openActivity.idActivity());
+        next = 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public Object accepted() {
+        loginAs(members.get(next++ % MEMBERS));
+        try {
+            return checkinService.save(openActivity, false);
+        } catch (BusinessExceptions e) {
+            // só acontece se uma iteração passar de MEMBERS chamadas
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object rejectedWhenFull() {
+        loginAs(members.get(1));
+        try {
+            return checkinService.save(fullActivity, false);
+        } catch (BusinessExceptions e) {
+            return e;
+        }
+    }
+
+    private void loginAs(AuthenticatedUser user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,325 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.User;
+import com.arianewelke.checkFit.infra.security.TokenService;
+import com.arianewelke.checkFit.repository.ActivityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Simula a abertura de uma aula: milhares de membros disparam POST /checkin ao mesmo tempo contra
+// atividades com poucas vagas. O relógio da aplicação é virtual, então cada rodada acontece num
+// "dia" novo às 07:00, independente da hora real.
+//
+// Cada combinação de --modes e --concurrency sobe uma aplicação nova, com um membro por cliente
+// concorrente. O modo "virtual" ativa o perfil virtual (threads virtuais no Tomcat) e só roda em Java 21+.
+//
+// mvn -f checkfit-benchmarks verify -Psimulate -Dsimulator.args="--modes=platform,virtual --concurrency=1000,5000,10000"
+public final class CheckinStormSimulator {
+
+    private static final int BATCH = 5_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 3);
+    private static final LocalTime OPENING = LocalTime.of(7, 0);
+
+    private final Settings settings;
+    private final String mode;
+    private final int members;
+    private final SimulatedClock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private HttpClient httpClient;
+    private URI checkinUri;
+
+    private CheckinStormSimulator(Settings settings, String mode, int members) {
+        this.settings = settings;
+        this.mode = mode;
+        this.members = members;
+        this.clock = new SimulatedClock(opening(0).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = Settings.parse(args);
+        var results = new LinkedHashMap<String, Report>();
+        int violations = 0;
+        for (String mode : settings.modes) {
+            if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+                System.out.printf("skipping mode virtual: virtual threads need Java 21+, running on %s%n%n", Runtime.version());
+                continue;
+            }
+            for (int concurrency : settings.concurrency) {
+                var simulator = new CheckinStormSimulator(settings, mode, concurrency);
+                try {
+                    var total = simulator.run();
+                    results.put(String.format("%-8s %7d", mode, concurrency), total);
+                    violations += total.overbooked + total.drifted;
+                } finally {
+                    simulator.close();
+                }
+            }
+        }
+        System.out.printf("%-8s %7s %10s %9s %9s %9s %9s %11s%n", "mode", "clients", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors", "violations");
+        results.forEach((run, total) -> total.printRow(run));
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    private Report run() throws Exception {
+        context = BenchmarkApplication.start(clock, modeArgs());
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        checkinUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/checkin?history=false");
+
+        var registered = registerMembers();
+        System.out.printf("mode %s: %d concurrent clients, %d activities x %d slots per round%n%n",
+                mode, members, settings.activities, settings.limit);
+
+        var total = new Report();
+        for (int round = 0; round < settings.rounds; round++) {
+            var report = round(round, registered);
+            report.print("round " + (round + 1));
+            total.merge(report);
+        }
+        total.print(mode + " x " + members + " total");
+        return total;
+    }
+
+    // as mesmas conexões aceitas nos dois modos, para que só o modelo de threads mude
+    private String[] modeArgs() {
+        var args = new ArrayList<>(List.of("--server.tomcat.max-connections=20000", "--server.tomcat.accept-count=1000"));
+        if (mode.equals("virtual")) {
+            args.add("--spring.profiles.active=virtual");
+        }
+        return args.toArray(String[]::new);
+    }
+
+    private Report round(int round, List<User> members) throws Exception {
+        // tokens gerados no dia da rodada, antes da abertura
+        clock.set(opening(round).minusMinutes(1).atZone(clock.getZone()).toInstant());
+        var activities = createActivities(round);
+        var tokens = members.stream().map(context.getBean(TokenService.class)::generateToken).toList();
+
+        var report = new Report();
+        var outcomes = new ConcurrentHashMap<String, LongAdder>();
+        var latencies = new long[members.size()];
+        var requests = new ArrayList<HttpRequest>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            requests.add(checkinRequest(tokens.get(i), activities.get(i % activities.size())));
+        }
+
+        // um request assíncrono por cliente: a concorrência não depende de uma thread por cliente no lado do simulador
+        clock.set(opening(round).atZone(clock.getZone()).toInstant());
+        var futures = new CompletableFuture<?>[members.size()];
+        long begin = System.nanoTime();
+        for (int i = 0; i < members.size(); i++) {
+            int member = i;
+            long sent = System.nanoTime();
+            futures[i] = httpClient.sendAsync(requests.get(i), HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        latencies[member] = System.nanoTime() - sent;
+                        String outcome = error != null ? "client " + rootCause(error).getClass().getSimpleName() : outcome(response);
+                        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(futures).join();
+        report.elapsedNanos = System.nanoTime() - begin;
+        report.latencies = latencies;
+        outcomes.forEach((outcome, count) -> report.outcomes.put(outcome, count.sum()));
+        verify(activities, report);
+        return report;
+    }
+
+    private HttpRequest checkinRequest(String token, long activityId) {
+        return HttpRequest.newBuilder(checkinUri)
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"idActivity\": " + activityId + "}"))
+                .build();
+    }
+
+    private String outcome(HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            return "200 accepted";
+        }
+        return response.statusCode() + " " + errorMessage(response.body());
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        while (error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private String errorMessage(String body) {
+        try {
+            var error = objectMapper.readTree(body).path("error");
+            return error.isMissingNode() ? "" : error.asText();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    // confere no banco: nenhuma atividade acima do limite e a coluna occupiedSlots igual à contagem real
+    private void verify(List<Long> activities, Report report) {
+        for (int index = 0; index < activities.size(); index++) {
+            long activityId = activities.get(index);
+            var row = jdbcTemplate.queryForMap("select a.limit_people, a.occupied_slots, "
+                    + "(select count(*) from checkin c where c.activity_id = a.id) as checkins from activity a where a.id = ?", activityId);
+            long limit = ((Number) row.get("limit_people")).longValue();
+            long occupied = ((Number) row.get("occupied_slots")).longValue();
+            long checkins = ((Number) row.get("checkins")).longValue();
+            // o membro i vai para a atividade i % activities
+            long demand = members / settings.activities + (index < members % settings.activities ? 1 : 0);
+            if (checkins > limit) {
+                report.overbooked++;
+                System.out.printf("OVERBOOKED activity %d: %d check-ins for %d slots%n", activityId, checkins, limit);
+            }
+            if (occupied != checkins) {
+                report.drifted++;
+                System.out.printf("DRIFT activity %d: occupiedSlots=%d, check-ins=%d%n", activityId, occupied, checkins);
+            }
+            report.unfilled += Math.max(Math.min(demand, limit) - checkins, 0);
+        }
+    }
+
+    private List<User> registerMembers() {
+        var createdAt = Timestamp.valueOf(LocalDateTime.now(clock));
+        var dateBirth = Date.valueOf(LocalDate.of(1990, 1, 1));
+        var registered = new ArrayList<User>(members);
+        for (int from = 0; from < members; from += BATCH) {
+            List<Object[]> rows = new ArrayList<>(BATCH);
+            for (int i = from; i < Math.min(from + BATCH, members); i++) {
+                String document = String.format("%011d", i);
+                var member = new User("Member " + i, document + "@checkfit.com", document, document,
+                        dateBirth.toLocalDate(), "password", createdAt.toLocalDateTime());
+                registered.add(member);
+                rows.add(new Object[]{member.getName(), member.getEmail(), document, document, dateBirth, "password", createdAt});
+            }
+            jdbcTemplate.batchUpdate("insert into user (name, email, phone, cpf, date_birth, password, created_at) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+        return registered;
+    }
+
+    private List<Long> createActivities(int round) {
+        var activityRepository = context.getBean(ActivityRepository.class);
+        var start = opening(round);
+        var activities = new ArrayList<Activity>();
+        for (int i = 0; i < settings.activities; i++) {
+            activities.add(new Activity(start, start.plusHours(1), "Round " + (round + 1) + " class " + (i + 1), settings.limit));
+        }
+        return activityRepository.saveAll(activities).stream().map(Activity::getId).sorted().toList();
+    }
+
+    private static LocalDateTime opening(int round) {
+        return FIRST_DAY.plusDays(round).atTime(OPENING);
+    }
+
+    private void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private record Settings(List<String> modes, List<Integer> concurrency, int activities, int limit, int rounds) {
+        static Settings parse(String[] args) {
+            Map<String, String> values = new HashMap<>(Map.of(
+                    "modes", "platform,virtual", "concurrency", "1000,5000,10000", "activities", "10", "limit", "12", "rounds", "3"));
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                if (!values.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown setting " + name + ", expected one of " + values.keySet());
+                }
+                values.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+            var modes = List.of(values.get("modes").split(","));
+            for (String mode : modes) {
+                if (!mode.equals("platform") && !mode.equals("virtual")) {
+                    throw new IllegalArgumentException("Unknown mode " + mode + ", expected platform or virtual");
+                }
+            }
+            var concurrency = Arrays.stream(values.get("concurrency").split(",")).map(Integer::valueOf).toList();
+            return new Settings(modes, concurrency, Integer.parseInt(values.get("activities")),
+                    Integer.parseInt(values.get("limit")), Integer.parseInt(values.get("rounds")));
+        }
+    }
+
+    private static final class Report {
+        private final Map<String, Long> outcomes = new TreeMap<>();
+        private long[] latencies = new long[0];
+        private long elapsedNanos;
+        private int overbooked;
+        private int drifted;
+        private long unfilled;
+
+        void merge(Report other) {
+            other.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum));
+            var merged = new long[latencies.length + other.latencies.length];
+            System.arraycopy(latencies, 0, merged, 0, latencies.length);
+            System.arraycopy(other.latencies, 0, merged, latencies.length, other.latencies.length);
+            latencies = merged;
+            elapsedNanos += other.elapsedNanos;
+            overbooked += other.overbooked;
+            drifted += other.drifted;
+            unfilled += other.unfilled;
+        }
+
+        void print(String title) {
+            var sorted = latencies.clone();
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("== %s: %d requests in %.2fs, %.0f req/s%n", title, sorted.length, seconds, sorted.length / seconds);
+            System.out.printf("   latency p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            outcomes.forEach((outcome, count) -> System.out.printf("   %-60s %d%n", outcome, count));
+            System.out.printf("   overbooked activities=%d, occupiedSlots drift=%d, unfilled slots=%d%n%n", overbooked, drifted, unfilled);
+        }
+
+        void printRow(String run) {
+            var sorted = latencies.clone();
+            Arrays.sort(sorted);
+            long errors = outcomes.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith("5") || entry.getKey().startsWith("client"))
+                    .mapToLong(Map.Entry::getValue).sum();
+            System.out.printf("%s %10.0f %9.1f %9.1f %9.1f %9d %11d%n", run, sorted.length / (elapsedNanos / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), errors, overbooked + drifted);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.dto.ActivityResponseDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryRowDTO;
+import com.arianewelke.checkFit.dto.CheckinResponseDTO;
+import com.arianewelke.checkFit.entity.Activity;
+import com.arianewelke.checkFit.entity.Checkin;
+import com.arianewelke.checkFit.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DtoMappingBenchmark {
+
+    @Param({"100"})
+    private int size;
+
+    private List<Activity> activities;
+    private List<Checkin> checkins;
+    private List<CheckinHistoryRowDTO> historyRows;
+
+    @Setup
+    public void setUp() {
+        var user = new User("Member", "member@checkfit.com", "11999999999", "11111111111", LocalDate.of(1990, 1, 1), "password", LocalDateTime.now());
+        var start = LocalDateTime.of(2025, 1, 1, 7, 0);
+        activities = new ArrayList<>();
+        checkins = new ArrayList<>();
+        historyRows = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            var activity = new Activity(start.plusDays(i), start.plusDays(i).plusHours(1), "Activity " + i, 20);
+            activity.setId((long) i);
+            activities.add(activity);
+            var checkin = new Checkin(user, activity, start.plusDays(i));
+            checkins.add(checkin);
+            historyRows.add(new CheckinHistoryRowDTO((long) i, user.getName(), activity.getDescription(), start.plusDays(i)));
+        }
+    }
+
+    @Benchmark
+    public List<ActivityResponseDTO> activityResponses() {
+        return activities.stream().map(ActivityResponseDTO::from).toList();
+    }
+
+    @Benchmark
+    public List<CheckinResponseDTO> checkinResponsesFromEntities() {
+        return checkins.stream()
+                .map(c -> new CheckinResponseDTO(c.getUser().getName(), c.getActivity().getDescription(), c.getCheckinTime()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CheckinResponseDTO> checkinResponsesFromHistoryRows() {
+        return historyRows.stream().map(CheckinHistoryRowDTO::toResponse).toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.dto.AvailabilityResponseDTO;
+import com.arianewelke.checkFit.dto.CheckinDetailsDTO;
+import com.arianewelke.checkFit.dto.CheckinHistoryPageDTO;
+import com.arianewelke.checkFit.dto.CheckinResponseDTO;
+import com.arianewelke.checkFit.dto.CheckinWithHistoryDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// serializa as respostas dos controllers com a mesma configuração de Jackson do Spring Boot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonSerializationBenchmark {
+
+    // blackbird é o que a aplicação usa (JacksonConfig); reflection é o padrão do Jackson, para comparação
+    @Param({"reflection", "blackbird"})
+    public String accessors;
+
+    private ObjectMapper objectMapper;
+    private CheckinWithHistoryDTO checkinWithHistory;
+    private CheckinHistoryPageDTO historyPage;
+    private List<CheckinDetailsDTO> checkinDetails;
+    private List<AvailabilityResponseDTO> availability;
+
+    @Setup
+    public void setUp() {
+        var builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("blackbird".equals(accessors)) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        var start = LocalDateTime.of(2025, 1, 1, 7, 0);
+        var history = new ArrayList<CheckinResponseDTO>();
+        for (int i = 0; i < 20; i++) {
+            history.add(new CheckinResponseDTO("Member", "Activity " + i, start.minusDays(i)));
+        }
+        checkinWithHistory = new CheckinWithHistoryDTO(history.get(0), history.subList(0, 10));
+        historyPage = new CheckinHistoryPageDTO(history, start.minusDays(20), 20L);
+        checkinDetails = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            checkinDetails.add(new CheckinDetailsDTO((long) i, (long) i % 10, "Member " + i % 10, (long) i / 10,
+                    "Activity " + i / 10, start.plusMinutes(i)));
+        }
+        availability = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            availability.add(new AvailabilityResponseDTO((long) i, "Activity " + i, 20, i % 21));
+        }
+    }
+
+    @Benchmark
+    public byte[] checkinWithHistory() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(checkinWithHistory);
+    }
+
+    @Benchmark
+    public byte[] historyPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(historyPage);
+    }
+
+    @Benchmark
+    public byte[] checkinDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(checkinDetails);
+    }
+
+    @Benchmark
+    public byte[] availability() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(availability);
+    }
+}
@@ -0,0 +1,77 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.dto.RecurringActivityRequestDTO;
+import com.arianewelke.checkFit.dto.RecurringScheduleRequestDTO;
+import com.arianewelke.checkFit.infra.schedule.ActivityIntervalIndex;
+import com.arianewelke.checkFit.service.interfaces.ActivityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+// grade de um semestre inteiro (20 semanas, 3 aulas por dia de segunda a sábado + 2 aos domingos) numa requisição
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RecurringScheduleBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ActivityService activityService;
+    private ActivityIntervalIndex intervalIndex;
+    private JdbcTemplate jdbcTemplate;
+    private RecurringScheduleRequestDTO term;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        activityService = context.getBean(ActivityService.class);
+        intervalIndex = context.getBean(ActivityIntervalIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        var weekdays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.SATURDAY);
+        var activities = new ArrayList<RecurringActivityRequestDTO>();
+        for (int hour = 6; hour < 21; hour += 5) {
+            activities.add(new RecurringActivityRequestDTO("Spinning " + hour, weekdays, LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0), 20));
+        }
+        activities.add(new RecurringActivityRequestDTO("Yoga", EnumSet.of(DayOfWeek.SUNDAY), LocalTime.of(9, 0), LocalTime.of(10, 0), 15));
+        activities.add(new RecurringActivityRequestDTO("Pilates", EnumSet.of(DayOfWeek.SUNDAY), LocalTime.of(10, 0), LocalTime.of(11, 0), 15));
+        var start = LocalDate.now().plusDays(1);
+        term = new RecurringScheduleRequestDTO(start, start.plusWeeks(20).minusDays(1), activities);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearActivities() {
+        jdbcTemplate.update("delete from activity");
+        intervalIndex.reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createTerm() {
+        return activityService.createRecurring(term);
+    }
+}
@@ -0,0 +1,43 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.dto.RegisterRequestDTO;
+import com.arianewelke.checkFit.infra.validation.RegisterRequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RegisterValidationBenchmark {
+
+    private final RegisterRequestDTO body = new RegisterRequestDTO("Member", "member@checkfit.com", "11999999999",
+            "11111111111", LocalDate.of(1990, 1, 1), "password1");
+
+    @Benchmark
+    public RegisterRequestDTO precompiledPatterns() {
+        RegisterRequestValidator.validate(body);
+        return body;
+    }
+
+    // como o AuthController validava antes: String.matches compila o padrão a cada chamada
+    @Benchmark
+    public boolean stringMatches() {
+        return body.phone().matches("^\\d{10,11}$")
+                && body.cpf().matches("^\\d{11}$")
+                && body.password().matches("^(?=.*[A-Za-z])(?=.*\\d)[A-Za-z\\d]{8,}$")
+                && body.email().matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+    }
+}
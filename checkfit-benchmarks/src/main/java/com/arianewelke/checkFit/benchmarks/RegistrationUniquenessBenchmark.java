@@ -0,0 +1,91 @@
+package com.arianewelke.checkFit.benchmarks;
+
+import com.arianewelke.checkFit.infra.uniqueness.UserUniquenessIndex;
+import com.arianewelke.checkFit.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// checagem de unicidade do cadastro com a base cheia: só as consultas exists vs. índice de Bloom + consultas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 3, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RegistrationUniquenessBenchmark {
+
+    private static final int BATCH = 10_000;
+
+    @Param({"1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserUniquenessIndex uniquenessIndex;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userRepository = context.getBean(UserRepository.class);
+        uniquenessIndex = context.getBean(UserUniquenessIndex.class);
+        var jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        var createdAt = Timestamp.valueOf(LocalDateTime.now());
+        var dateBirth = Date.valueOf(LocalDate.of(1990, 1, 1));
+        for (int from = 0; from < users; from += BATCH) {
+            List<Object[]> rows = new ArrayList<>(BATCH);
+            for (int i = from; i < Math.min(from + BATCH, users); i++) {
+                String document = String.format("%011d", i);
+                rows.add(new Object[]{"Member " + i, document + "@checkfit.com", document, document, dateBirth, "password", createdAt});
+            }
+            jdbcTemplate.batchUpdate("insert into user (name, email, phone, cpf, date_birth, password, created_at) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+        uniquenessIndex.rebuild();
+        next = users;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean existsQueries() {
+        String document = String.format("%011d", next++);
+        return userRepository.existsByEmail(document + "@checkfit.com")
+                || userRepository.existsByCpf(document)
+                || userRepository.existsByPhone(document);
+    }
+
+    @Benchmark
+    public boolean indexThenQueries() {
+        String document = String.format("%011d", next++);
+        String email = document + "@checkfit.com";
+        return (uniquenessIndex.mightContainEmail(email) && userRepository.existsByEmail(email))
+                || (uniquenessIndex.mightContainCpf(document) && userRepository.existsByCpf(document))
+                || (uniquenessIndex.mightContainPhone(document) && userRepository.existsByPhone(document));
+    }
+}
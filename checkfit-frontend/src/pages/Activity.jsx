@@ -1,10 +1,30 @@
 import { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
-import api from "../services/api";
+import api, { openActivityStream } from "../services/api";
 import Navbar from "../components/Layout/Navbar";
 import ToastNotification from "../components/ToastNotification";
 import { formatTimeRange } from "../utils/dateFormat";
 
+const AVAILABILITY_WINDOW_DAYS = 31;
+
+// data local no formato ISO sem fuso, como o servidor espera (yyyy-MM-ddTHH:mm:ss)
+const toLocalIso = (date) => {
+    const pad = (value) => String(value).padStart(2, "0");
+    return `${date.getFullYear()}-${pad(date.getMonth() + 1)}-${pad(date.getDate())}T${pad(date.getHours())}:${pad(date.getMinutes())}:${pad(date.getSeconds())}`;
+};
+
+const availabilityWindows = (activities) => {
+    if (activities.length === 0) return [];
+    const starts = activities.map(activity => new Date(activity.startTime).getTime());
+    const last = Math.max(...starts);
+    const windows = [];
+    for (let from = Math.min(...starts); from <= last; from += AVAILABILITY_WINDOW_DAYS * 24 * 60 * 60 * 1000) {
+        const to = Math.min(from + AVAILABILITY_WINDOW_DAYS * 24 * 60 * 60 * 1000 - 1000, last + 999);
+        windows.push({ from: toLocalIso(new Date(from)), to: toLocalIso(new Date(to)) });
+    }
+    return windows;
+};
+
 function Activity() {
     const [activities, setActivities] = useState([]);
     const [availability, setAvailability] = useState({});
@@ -25,6 +45,18 @@ function Activity() {
 
     useEffect(() => {
         fetchData();
+
+        // vagas atualizadas pelo servidor, sem buscar tudo de novo
+        const stream = openActivityStream((changes) => {
+            setAvailability(prev => {
+                const next = { ...prev };
+                for (const item of changes) {
+                    next[item.activityId] = item;
+                }
+                return next;
+            });
+        });
+        return () => stream.close();
     }, []);
 
     const fetchData = async () => {
@@ -35,14 +67,15 @@ function Activity() {
             const response = await api.get("/activity", { headers });
             setActivities(response.data);
 
+            // vagas só da janela das atividades listadas, em pedaços de até 31 dias (limite do servidor)
+            const windows = availabilityWindows(response.data);
+            const availabilityResponses = await Promise.all(windows.map(params =>
+                api.get("/activity/availability", { headers, params })
+            ));
             const availabilityData = {};
-            for (const activity of response.data) {
-                try {
-                    const res = await api.get(`/activity/${activity.id}/availability`, { headers });
-                    availabilityData[activity.id] = res.data;
-                } catch (error) {
-                    console.error(`Erro ao buscar disponibilidade da atividade ${activity.id}`, error);
-                    availabilityData[activity.id] = { availableSlots: 0 };
+            for (const availabilityResponse of availabilityResponses) {
+                for (const item of availabilityResponse.data) {
+                    availabilityData[item.activityId] = item;
                 }
             }
             setAvailability(availabilityData);
@@ -61,13 +94,11 @@ function Activity() {
             const token = localStorage.getItem("token");
             const response = await api.post("/checkin", 
                 { idActivity: activityId },
-                { headers: { Authorization: `Bearer ${token}` } }
+                { headers: { Authorization: `Bearer ${token}` }, params: { history: false } }
             );
             
             setToast({ message: "🎉 Check-in realizado com sucesso! Sua presença foi confirmada.", type: "success" });
             
-            await fetchData();
-            
         } catch (error) {
             console.error("Check-in error:", error);
             setToast({ message: error.response?.data?.message || "Erro ao realizar check-in. Tente novamente.", type: "error" });
@@ -6,10 +6,16 @@ import { formatTimeRange, formatDateTime } from "../utils/dateFormat";
 
 function CheckinHistory() {
     const [history, setHistory] = useState([]);
+    const [cursor, setCursor] = useState(null);
     const [isLoading, setIsLoading] = useState(true);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
     const [error, setError] = useState("");
     const navigate = useNavigate();
 
+    const toCursor = (page) => page.nextId
+        ? { beforeCheckinTime: page.nextCheckinTime, beforeId: page.nextId }
+        : null;
+
     useEffect(() => {
         const fetchHistory = async () => {
             try {
@@ -26,7 +32,8 @@ function CheckinHistory() {
                     headers: { Authorization: `Bearer ${token}` }
                 });
                 
-                setHistory(response.data || []);
+                setHistory(response.data?.items || []);
+                setCursor(toCursor(response.data || {}));
             } catch (error) {
                 console.error("Error fetching history:", error);
                 setError(error.response?.data?.message || "Erro ao carregar histórico");
@@ -42,6 +49,25 @@ function CheckinHistory() {
         fetchHistory();
     }, [navigate]);
 
+    const loadMore = async () => {
+        if (!cursor) return;
+        try {
+            setIsLoadingMore(true);
+            const token = localStorage.getItem("token");
+            const response = await api.get("/checkin/history", {
+                headers: { Authorization: `Bearer ${token}` },
+                params: cursor
+            });
+            setHistory(prev => [...prev, ...(response.data?.items || [])]);
+            setCursor(toCursor(response.data || {}));
+        } catch (error) {
+            console.error("Error fetching history:", error);
+            setError(error.response?.data?.message || "Erro ao carregar histórico");
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     const getStatusBadge = (status) => {
         switch(status?.toLowerCase()) {
             case 'confirmed':
@@ -176,6 +202,18 @@ function CheckinHistory() {
                                         </div>
                                     ))}
                                 </div>
+
+                                {cursor && (
+                                    <div className="empty-actions">
+                                        <button
+                                            onClick={loadMore}
+                                            className="btn btn-secondary"
+                                            disabled={isLoadingMore}
+                                        >
+                                            {isLoadingMore ? "Carregando..." : "Carregar mais"}
+                                        </button>
+                                    </div>
+                                )}
                             </>
                         )}
                     </div>
@@ -28,16 +28,18 @@ function Home() {
             const token = localStorage.getItem("token");
             const headers = { Authorization: `Bearer ${token}` };
 
-            // Buscar atividades disponíveis
-            const activitiesResponse = await api.get("/activity", { headers });
-            const activities = activitiesResponse.data;
+            // Atividades que ainda não terminaram e as três próximas
+            const [activitiesResponse, nextResponse] = await Promise.all([
+                api.get("/activity", { headers }),
+                api.get("/activity/schedule", { headers, params: { size: 3 } })
+            ]);
             
             setStats(prev => ({
                 ...prev,
-                activeActivities: activities.length
+                activeActivities: activitiesResponse.data.length
             }));
             
-            setRecentActivities(activities.slice(0, 3));
+            setRecentActivities(nextResponse.data.items);
         } catch (error) {
             console.error("Error fetching dashboard data:", error);
         } finally {
@@ -53,13 +55,11 @@ function Home() {
             const token = localStorage.getItem("token");
             const response = await api.post("/checkin", 
                 { idActivity: activityId }, 
-                { headers: { Authorization: `Bearer ${token}` } }
+                { headers: { Authorization: `Bearer ${token}` }, params: { history: false } }
             );
             
             setToast({ message: "🎉 Check-in realizado com sucesso! Sua presença foi confirmada.", type: "success" });
             
-            await fetchDashboardData();
-            
         } catch (error) {
             console.error("Check-in error:", error);
             setToast({ message: error.response?.data?.message || "Erro ao realizar check-in. Tente novamente.", type: "error" });
@@ -4,4 +4,43 @@ const api = axios.create({
     baseURL: 'http://localhost:8080',
 });
 
+// Feed de ocupação das atividades (SSE). O EventSource não envia cabeçalhos, então a conexão usa um
+// ticket de uso único pedido com o token; a cada queda a reconexão pede um ticket novo.
+export const openActivityStream = (onOccupancy) => {
+    let source = null;
+    let retry = null;
+    let closed = false;
+
+    const connect = async () => {
+        try {
+            const token = localStorage.getItem('token');
+            const { data } = await api.post('/activity/stream/ticket', null, {
+                headers: { Authorization: `Bearer ${token}` }
+            });
+            if (closed) return;
+            source = new EventSource(`${api.defaults.baseURL}/activity/stream?ticket=${encodeURIComponent(data.ticket)}`);
+            source.addEventListener('occupancy', (event) => onOccupancy(JSON.parse(event.data)));
+            source.onerror = () => {
+                source.close();
+                reconnect();
+            };
+        } catch (error) {
+            reconnect();
+        }
+    };
+
+    const reconnect = () => {
+        if (!closed) retry = setTimeout(connect, 3000);
+    };
+
+    connect();
+    return {
+        close: () => {
+            closed = true;
+            clearTimeout(retry);
+            if (source) source.close();
+        }
+    };
+};
+
 export default api;